@@ -0,0 +1,32 @@
+package com.example.demo.benchmarks;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.HospitalManagementSystemApplication;
+
+/**
+ * Boots the application for a benchmark trial with the {@code benchmark} profile: embedded H2 and no
+ * web server, with the same beans, caches and Hibernate settings as production.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(HospitalManagementSystemApplication.class)
+                .profiles("benchmark")
+                .run();
+    }
+
+    /** The bean behind its transactional or caching proxy, for calling methods the proxy does not expose. */
+    @SuppressWarnings("unchecked")
+    public static <T> T target(ApplicationContext context, Class<T> type) {
+        T bean = context.getBean(type);
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        return target != null ? (T) target : bean;
+    }
+}
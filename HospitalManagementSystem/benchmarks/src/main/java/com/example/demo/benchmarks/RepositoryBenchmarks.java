@@ -0,0 +1,162 @@
+package com.example.demo.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.dto.PatientDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.DoctorRepository;
+import com.example.demo.repository.PatientRepository;
+import com.example.demo.service.AppointmentService;
+import com.example.demo.service.PatientService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Service reads that go through the repositories, against embedded H2 seeded with {@code appointments}
+ * rows spread over 40 doctors and a tenth as many patients. Lookups rotate through the seeded ids so
+ * the second-level cache sees a realistic mix rather than one hot row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmarks {
+
+    private static final int DOCTORS = 40;
+    private static final int BATCH = 1000;
+
+    @Param({"20000"})
+    private int appointments;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private PatientService patientService;
+
+    private final List<Long> doctorIds = new ArrayList<>();
+    private final List<Long> patientIds = new ArrayList<>();
+    private final List<Long> appointmentIds = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        appointmentService = context.getBean(AppointmentService.class);
+        patientService = context.getBean(PatientService.class);
+        seed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPageDTO<AppointmentDTO> appointmentsByDoctorFirstPage() {
+        return appointmentService.findByDoctor(doctorIds.get(next() % doctorIds.size()), null, 50);
+    }
+
+    @Benchmark
+    public CursorPageDTO<AppointmentDTO> appointmentsFirstPage() {
+        return appointmentService.findAll(null, 50);
+    }
+
+    @Benchmark
+    public AppointmentDTO appointmentById() {
+        return appointmentService.findById(appointmentIds.get(next() % appointmentIds.size()));
+    }
+
+    @Benchmark
+    public PatientDTO patientById() {
+        return patientService.findById(patientIds.get(next() % patientIds.size()));
+    }
+
+    @Benchmark
+    public CursorPageDTO<PatientDTO> patientsFirstPage() {
+        return patientService.findAll(null, 50);
+    }
+
+    private int next() {
+        next = (next + 7919) & Integer.MAX_VALUE;
+        return next;
+    }
+
+    private void seed() {
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        DepartmentRepository departmentRepository = context.getBean(DepartmentRepository.class);
+        DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+        PatientRepository patientRepository = context.getBean(PatientRepository.class);
+        AppointmentRepository appointmentRepository = context.getBean(AppointmentRepository.class);
+
+        List<Doctor> doctors = new ArrayList<>();
+        tx.executeWithoutResult(status -> {
+            Department department = departmentRepository.save(Department.builder().name("Benchmark").build());
+            for (int i = 0; i < DOCTORS; i++) {
+                doctors.add(doctorRepository.save(Doctor.builder().name("Dr. Bench " + i)
+                        .specialization("General").department(department).build()));
+            }
+        });
+        doctors.forEach(doctor -> doctorIds.add(doctor.getId()));
+
+        int patientCount = Math.max(1, appointments / 10);
+        for (int from = 0; from < patientCount; from += BATCH) {
+            int to = Math.min(patientCount, from + BATCH);
+            int start = from;
+            tx.executeWithoutResult(status -> {
+                for (int i = start; i < to; i++) {
+                    patientIds.add(patientRepository.save(Patient.builder().name("Patient " + i)
+                            .email("patient" + i + "@example.com").dateOfBirth(LocalDate.of(1950 + i % 60, 1, 1))
+                            .build()).getId());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(9, 0);
+        for (int from = 0; from < appointments; from += BATCH) {
+            int to = Math.min(appointments, from + BATCH);
+            int start = from;
+            tx.executeWithoutResult(status -> {
+                for (int i = start; i < to; i++) {
+                    Doctor doctor = entityManager.getReference(Doctor.class, doctorIds.get(i % DOCTORS));
+                    Patient patient = entityManager.getReference(Patient.class, patientIds.get(i % patientIds.size()));
+                    appointmentIds.add(appointmentRepository.save(Appointment.builder().doctor(doctor).patient(patient)
+                            .appointmentDate(first.plusMinutes(30L * (i / DOCTORS))).status("SCHEDULED")
+                            .build()).getId());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.benchmarks;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.dto.AppointmentDTO;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * JSON serialization of appointment lists with the application's own {@link JsonMapper}, written to a
+ * discarding stream so only Jackson is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmarks {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private JsonMapper jsonMapper;
+    private List<AppointmentDTO> appointments;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        jsonMapper = context.getBean(JsonMapper.class);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+        appointments = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long doctorId = i % 40;
+            appointments.add(AppointmentDTO.builder()
+                    .id((long) i + 1)
+                    .patientId((long) i * 7 % 50_000 + 1)
+                    .patientName("Patient " + (i * 7 % 50_000 + 1))
+                    .doctorId(doctorId + 1)
+                    .doctorName("Dr. Doctor " + (doctorId + 1))
+                    .departmentId(doctorId % 8 + 1)
+                    .departmentName("Department " + (doctorId % 8 + 1))
+                    .appointmentDate(start.plusMinutes(30L * (i / 40)))
+                    .status(i % 10 == 0 ? "COMPLETED" : "SCHEDULED")
+                    .notes(i % 3 == 0 ? "Bring previous reports" : null)
+                    .version(0L)
+                    .build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void writeList() {
+        jsonMapper.writeValue(OutputStream.nullOutputStream(), appointments);
+    }
+}
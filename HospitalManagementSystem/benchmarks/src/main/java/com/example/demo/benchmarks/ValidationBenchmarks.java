@@ -0,0 +1,113 @@
+package com.example.demo.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.dto.PatientDTO;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bean Validation with the application's validator. The {@code *DTO} benchmarks are what {@code @Valid}
+ * costs on request bodies; the entity ones are what Hibernate's pre-persist validation and the patient
+ * import pay, including the message interpolation of a failing row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmarks {
+
+    private ConfigurableApplicationContext context;
+    private Validator validator;
+
+    private PatientDTO patientDTO;
+    private DoctorDTO doctorDTO;
+    private DepartmentDTO departmentDTO;
+    private AppointmentDTO appointmentDTO;
+    private Patient patient;
+    private Patient invalidPatient;
+    private Doctor doctor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        validator = context.getBean(Validator.class);
+
+        patientDTO = PatientDTO.builder().name("Rahul Deshpande").email("rahul.deshpande@example.com")
+                .phone("+91-98220-12345").dateOfBirth(LocalDate.of(1984, 6, 12)).bloodGroup("B+").build();
+        doctorDTO = DoctorDTO.builder().name("Dr. Meera Kulkarni").specialization("Cardiology")
+                .email("meera.kulkarni@hospital.example").phone("+91-20-5550-0102").departmentId(1L).build();
+        departmentDTO = DepartmentDTO.builder().name("Cardiology").description("Heart and vascular care").build();
+        appointmentDTO = AppointmentDTO.builder().patientId(3L).doctorId(2L)
+                .appointmentDate(LocalDateTime.of(2030, 3, 4, 10, 30)).status("SCHEDULED").build();
+        patient = Patient.builder().name("Rahul Deshpande").email("rahul.deshpande@example.com")
+                .phone("+91-98220-12345").dateOfBirth(LocalDate.of(1984, 6, 12)).bloodGroup("B+").build();
+        invalidPatient = Patient.builder().name(" ").email("not-an-email").build();
+        doctor = Doctor.builder().name("Dr. Meera Kulkarni").specialization("Cardiology")
+                .email("meera.kulkarni@hospital.example").phone("+91-20-5550-0102").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PatientDTO>> patientDTO() {
+        return validator.validate(patientDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<DoctorDTO>> doctorDTO() {
+        return validator.validate(doctorDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<DepartmentDTO>> departmentDTO() {
+        return validator.validate(departmentDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<AppointmentDTO>> appointmentDTO() {
+        return validator.validate(appointmentDTO);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Patient>> patientEntity() {
+        return validator.validate(patient);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Patient>> invalidPatientEntity() {
+        return validator.validate(invalidPatient);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Doctor>> doctorEntity() {
+        return validator.validate(doctor);
+    }
+}
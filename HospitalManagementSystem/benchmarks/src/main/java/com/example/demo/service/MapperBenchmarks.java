@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.benchmarks.BenchmarkApplication;
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.dto.PatientDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+
+/**
+ * The entity-to-DTO mappers of the four CRUD services, on detached entities so no lazy loading is
+ * measured. Lives in the service package because the mappers are package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmarks {
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private PatientService patientService;
+    private DoctorService doctorService;
+    private DepartmentService departmentService;
+
+    private Department department;
+    private Doctor doctor;
+    private Patient patient;
+    private Appointment appointment;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        appointmentService = BenchmarkApplication.target(context, AppointmentService.class);
+        patientService = BenchmarkApplication.target(context, PatientService.class);
+        doctorService = BenchmarkApplication.target(context, DoctorService.class);
+        departmentService = BenchmarkApplication.target(context, DepartmentService.class);
+
+        department = Department.builder().id(1L).name("Cardiology").description("Heart and vascular care").build();
+        doctor = Doctor.builder().id(2L).name("Dr. Meera Kulkarni").specialization("Interventional Cardiology")
+                .email("meera.kulkarni@hospital.example").phone("+91-20-5550-0102").department(department).build();
+        patient = Patient.builder().id(3L).name("Rahul Deshpande").email("rahul.deshpande@example.com")
+                .phone("+91-98220-12345").dateOfBirth(LocalDate.of(1984, 6, 12))
+                .address("14 Law College Road, Pune").bloodGroup("B+").build();
+        appointment = Appointment.builder().id(4L).patient(patient).doctor(doctor).department(department)
+                .appointmentDate(LocalDateTime.of(2030, 3, 4, 10, 30)).status("SCHEDULED")
+                .notes("Follow-up after angiography").version(2L).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AppointmentDTO appointmentToDTO() {
+        return appointmentService.toDTO(appointment);
+    }
+
+    @Benchmark
+    public PatientDTO patientToDTO() {
+        return patientService.toDTO(patient);
+    }
+
+    @Benchmark
+    public DoctorDTO doctorToDTO() {
+        return doctorService.toDTO(doctor);
+    }
+
+    @Benchmark
+    public DepartmentDTO departmentToDTO() {
+        return departmentService.toDTO(department);
+    }
+}
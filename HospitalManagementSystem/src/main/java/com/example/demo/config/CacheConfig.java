@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Bounded Caffeine caches for reference data (departments and doctors). The caching advice runs
+ * outside the transaction advice so a hit never opens a transaction or borrows a connection, and the
+ * manager is transaction-aware so evictions issued inside a transaction take effect after commit.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String DEPARTMENTS = "departments";
+    public static final String DEPARTMENT_LIST = "departmentList";
+    public static final String DOCTORS = "doctors";
+    public static final String DOCTOR_PAGES = "doctorPages";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${reference-data.cache.spec:maximumSize=10000,expireAfterWrite=10m}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(DEPARTMENTS, DEPARTMENT_LIST, DOCTORS, DOCTOR_PAGES);
+        caffeine.setCaffeine(Caffeine.from(spec).recordStats());
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
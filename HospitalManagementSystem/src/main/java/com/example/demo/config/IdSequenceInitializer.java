@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.IdGenerators;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves each id generator row past the highest id already in its table. Databases created while the
+ * entities used IDENTITY columns already hold rows, and a fresh generator row would hand out ids that
+ * collide with them.
+ *
+ * <p>Runs once every singleton exists, so after the entity manager factory has brought the schema up
+ * to date, but before the embedded web server starts accepting requests and before any startup runner
+ * inserts data. An application runner would run too late: the server is already listening by then.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    private static final Map<String, String> SEQUENCE_TABLES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCE_TABLES.put(IdGenerators.DEPARTMENTS, "departments");
+        SEQUENCE_TABLES.put(IdGenerators.DOCTORS, "doctors");
+        SEQUENCE_TABLES.put(IdGenerators.PATIENTS, "patients");
+        SEQUENCE_TABLES.put(IdGenerators.APPOINTMENTS, "appointments");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void afterSingletonsInstantiated() {
+        SEQUENCE_TABLES.forEach(this::align);
+    }
+
+    private void align(String sequenceName, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+        // The pooled optimizer hands out the block ending at the stored value, so stay a full block clear.
+        long floor = maxId + IdGenerators.ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update(
+                "update " + IdGenerators.TABLE + " set " + IdGenerators.VALUE_COLUMN + " = ? where "
+                        + IdGenerators.NAME_COLUMN + " = ? and " + IdGenerators.VALUE_COLUMN + " < ?",
+                floor, sequenceName, floor);
+        if (updated == 0) {
+            Integer rows = jdbcTemplate.queryForObject(
+                    "select count(*) from " + IdGenerators.TABLE + " where " + IdGenerators.NAME_COLUMN + " = ?",
+                    Integer.class, sequenceName);
+            if (rows != null && rows == 0) {
+                jdbcTemplate.update("insert into " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+                        + IdGenerators.VALUE_COLUMN + ") values (?, ?)", sequenceName, floor);
+            }
+        }
+    }
+}
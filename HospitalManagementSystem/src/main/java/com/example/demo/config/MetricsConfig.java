@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.SessionEventSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Hooks {@link RequestStatistics}' statement inspector and session listener into Hibernate; its
+ * post-load integrator is registered as a service instead. Pool saturation, cache hit ratios and the
+ * global Hibernate statistics come from Spring Boot's own Hikari, cache and Hibernate meter binders.
+ *
+ * <p>Hibernate takes a single statement inspector, so one configured through
+ * {@code hibernate.session_factory.statement_inspector} (as the stress tests do) is kept and called
+ * after the counting one.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer requestStatisticsHibernateProperties() {
+        return properties -> {
+            StatementInspector configured = inspector(properties.get(JdbcSettings.STATEMENT_INSPECTOR));
+            properties.put(JdbcSettings.STATEMENT_INSPECTOR, new RequestStatistics.Inspector(configured));
+            properties.put(SessionEventSettings.AUTO_SESSION_EVENTS_LISTENER, RequestStatistics.SessionListener.class.getName());
+        };
+    }
+
+    private static StatementInspector inspector(Object setting) {
+        if (setting == null || setting instanceof StatementInspector) {
+            return (StatementInspector) setting;
+        }
+        Class<?> type = setting instanceof Class<?> clazz ? clazz
+                : ClassUtils.resolveClassName(setting.toString(), MetricsConfig.class.getClassLoader());
+        return (StatementInspector) BeanUtils.instantiateClass(type);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.config;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements one call of a controller method may run, checked by
+ * {@link QueryBudgets}. Cached and conditional (304) responses run fewer; the budget is for the worst
+ * ordinary case, so a new lazy load or a loop of queries pushes the endpoint over it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /** For endpoints whose statement count grows with the request body, such as bulk imports. */
+    int UNLIMITED = -1;
+
+    int value();
+}
@@ -0,0 +1,100 @@
+package com.example.demo.config;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * SQL statement budgets per HTTP request and per transactional service method. A controller method
+ * gets the budget of its {@link QueryBudget} annotation, or {@code query-budget.request} without one;
+ * every transaction started by a {@code @Transactional} method of this application gets
+ * {@code query-budget.transaction}. In either scope, the same statement running more than
+ * {@code query-budget.repeat-limit} times is reported as a likely N+1 load.
+ *
+ * <p>With {@code query-budget.enforce} on, as in the tests, the statement that breaks a budget fails
+ * with {@link com.example.demo.exception.QueryBudgetExceededException}; otherwise the overrun is logged
+ * once the request or transaction is over.
+ */
+@Component
+public class QueryBudgets implements TransactionExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgets.class);
+
+    private static final String APPLICATION_PACKAGE = "com.example.demo.";
+
+    private final boolean enforce;
+    private final int requestBudget;
+    private final int transactionBudget;
+    private final int repeatLimit;
+
+    public QueryBudgets(@Value("${query-budget.enforce:false}") boolean enforce,
+                        @Value("${query-budget.request:20}") int requestBudget,
+                        @Value("${query-budget.transaction:10}") int transactionBudget,
+                        @Value("${query-budget.repeat-limit:3}") int repeatLimit) {
+        this.enforce = enforce;
+        this.requestBudget = requestBudget;
+        this.transactionBudget = transactionBudget;
+        this.repeatLimit = repeatLimit;
+    }
+
+    void beginRequest(HandlerMethod handler) {
+        QueryBudget annotation = handler.getMethodAnnotation(QueryBudget.class);
+        int budget = annotation != null ? annotation.value() : requestBudget;
+        String label = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+        // An unlimited endpoint does its work in batches whose statements repeat by design.
+        RequestStatistics.begin(label, budget, budget == QueryBudget.UNLIMITED ? -1 : repeatLimit, enforce);
+    }
+
+    RequestStatistics endRequest() {
+        return report(RequestStatistics.end());
+    }
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        if (isApplicationMethod(transaction)) {
+            RequestStatistics.begin(transaction.getTransactionName(), transactionBudget, repeatLimit, enforce);
+        }
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null && isApplicationMethod(transaction)) {
+            RequestStatistics.end();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (isApplicationMethod(transaction)) {
+            report(RequestStatistics.end());
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        if (isApplicationMethod(transaction)) {
+            report(RequestStatistics.end());
+        }
+    }
+
+    private RequestStatistics report(RequestStatistics statistics) {
+        if (statistics != null) {
+            statistics.getViolations().forEach(log::warn);
+        }
+        return statistics;
+    }
+
+    /**
+     * Programmatic transactions have no name and repository transactions are named after Spring Data's
+     * classes; neither is a service method with a budget.
+     */
+    private static boolean isApplicationMethod(TransactionExecution transaction) {
+        String name = transaction.getTransactionName();
+        return name != null && name.startsWith(APPLICATION_PACKAGE);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.config;
+
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, per controller method, the request latency as a histogram together with the database work
+ * counted by {@link RequestStatistics}: SQL statements, entities loaded and connection wait. Exposed
+ * through {@code /actuator/prometheus} as {@code hospital_request_*}. The statement count is held to the
+ * method's budget by {@link QueryBudgets}.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED_AT = RequestMetricsInterceptor.class.getName() + ".startedAt";
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgets queryBudgets;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            // An async dispatch passes through again; the latency still runs from the original request.
+            if (request.getAttribute(STARTED_AT) == null) {
+                request.setAttribute(STARTED_AT, System.nanoTime());
+            }
+            queryBudgets.beginRequest(method);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The container thread goes back to the pool; do not leave its counters behind.
+        RequestStatistics.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestStatistics statistics = queryBudgets.endRequest();
+        if (!(handler instanceof HandlerMethod method) || !(request.getAttribute(STARTED_AT) instanceof Long startedAt)) {
+            return;
+        }
+        Tags endpoint = Tags.of("controller", method.getBeanType().getSimpleName(),
+                "method", method.getMethod().getName());
+
+        Timer.builder("hospital.request")
+                .description("Controller method latency")
+                .tags(endpoint)
+                .tag("status", String.valueOf(response.getStatus()))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (statistics == null) {
+            return;
+        }
+        DistributionSummary.builder("hospital.request.statements")
+                .description("SQL statements per request")
+                .tags(endpoint)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("hospital.request.entities.loaded")
+                .description("Entities loaded per request")
+                .tags(endpoint)
+                .serviceLevelObjectives(1, 10, 50, 100, 500, 1000)
+                .register(meterRegistry)
+                .record(statistics.getEntitiesLoaded());
+        Timer.builder("hospital.request.connection.wait")
+                .description("Time spent waiting for pooled connections per request")
+                .tags(endpoint)
+                .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(20),
+                        Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(2))
+                .register(meterRegistry)
+                .record(statistics.getConnectionWaitNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.config;
+
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import com.example.demo.exception.QueryBudgetExceededException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Database work done on behalf of the current request, or of a transactional service method inside
+ * it: SQL statements, entities loaded and time spent waiting for a pooled connection. Scopes nest per
+ * thread and every statement counts towards all open ones. Hibernate reports into them through an
+ * {@link Inspector}, a {@link SessionListener} created for every session and a post-load listener added
+ * by {@link PostLoadIntegrator}. The first two are wired in by {@link MetricsConfig}; the integrator is
+ * found by Hibernate through {@code META-INF/services/org.hibernate.integrator.spi.Integrator}. Work handed to other threads (streamed
+ * exports, import chunks) is not attributed to any request.
+ *
+ * <p>A scope with a budget also watches for overruns and for the same statement shape coming back
+ * again and again, the signature of an N+1 load. Overruns are thrown at the offending statement when
+ * the scope enforces its budget, otherwise collected for {@link QueryBudgets} to log.
+ */
+public final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    // "in (?,?,?)" lists differ only in length; they are one shape.
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)+\\)");
+    private static final int MAX_SQL_IN_MESSAGE = 160;
+
+    private final RequestStatistics parent;
+    private final String label;
+    private final int budget;
+    private final int repeatLimit;
+    private final boolean enforce;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private final List<String> violations = new ArrayList<>();
+
+    private int statements;
+    private int entitiesLoaded;
+    private long connectionWaitNanos;
+    private long acquisitionStartedAt;
+
+    private RequestStatistics(RequestStatistics parent, String label, int budget, int repeatLimit, boolean enforce) {
+        this.parent = parent;
+        this.label = label;
+        this.budget = budget;
+        this.repeatLimit = repeatLimit;
+        this.enforce = enforce;
+    }
+
+    /**
+     * Opens a scope on this thread, nested in the current one if any. A negative budget or repeat
+     * limit turns that check off.
+     */
+    static void begin(String label, int budget, int repeatLimit, boolean enforce) {
+        CURRENT.set(new RequestStatistics(CURRENT.get(), label, budget, repeatLimit, enforce));
+    }
+
+    /** Closes the innermost scope on this thread and returns it, or null if none was open. */
+    static RequestStatistics end() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return null;
+        }
+        if (statistics.parent != null) {
+            CURRENT.set(statistics.parent);
+        } else {
+            CURRENT.remove();
+        }
+        return statistics;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    /** Budget overruns and repeated statements seen by a scope that does not enforce its budget. */
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    private void statement(String sql) {
+        statements++;
+        if (budget >= 0 && statements == budget + 1) {
+            violation("%s ran more than %d SQL statements, the last one: %s", label, budget, abbreviate(sql));
+        }
+        if (repeatLimit >= 0) {
+            String shape = IN_LIST.matcher(sql).replaceAll("(?)");
+            int seen = shapes.merge(shape, 1, Integer::sum);
+            if (seen == repeatLimit + 1) {
+                violation("%s ran the same statement %d times, likely an N+1 load: %s",
+                        label, seen, abbreviate(shape));
+            }
+        }
+    }
+
+    private void violation(String format, Object... args) {
+        String message = String.format(format, args);
+        if (enforce) {
+            throw new QueryBudgetExceededException(message);
+        }
+        violations.add(message);
+    }
+
+    private static String abbreviate(String sql) {
+        String flat = sql.replaceAll("\\s+", " ").trim();
+        return flat.length() <= MAX_SQL_IN_MESSAGE ? flat : flat.substring(0, MAX_SQL_IN_MESSAGE) + "...";
+    }
+
+    private static void entityLoaded(PostLoadEvent event) {
+        for (RequestStatistics scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.entitiesLoaded++;
+        }
+    }
+
+    /**
+     * Sees every SQL statement Hibernate prepares. Hands it on to the inspector configured through
+     * {@code hibernate.session_factory.statement_inspector}, if there is one.
+     */
+    static class Inspector implements StatementInspector {
+
+        private final StatementInspector delegate;
+
+        Inspector(StatementInspector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            for (RequestStatistics scope = CURRENT.get(); scope != null; scope = scope.parent) {
+                scope.statement(sql);
+            }
+            return delegate != null ? delegate.inspect(sql) : sql;
+        }
+    }
+
+    /** Instantiated by Hibernate for each session, see {@code hibernate.session.events.auto}. */
+    public static class SessionListener implements SessionEventListener {
+
+        @Override
+        public void jdbcConnectionAcquisitionStart() {
+            RequestStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.acquisitionStartedAt = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void jdbcConnectionAcquisitionEnd() {
+            RequestStatistics statistics = CURRENT.get();
+            if (statistics != null && statistics.acquisitionStartedAt != 0) {
+                long waited = System.nanoTime() - statistics.acquisitionStartedAt;
+                statistics.acquisitionStartedAt = 0;
+                for (RequestStatistics scope = statistics; scope != null; scope = scope.parent) {
+                    scope.connectionWaitNanos += waited;
+                }
+            }
+        }
+    }
+
+    /** Loaded by Hibernate through {@link java.util.ServiceLoader}; counts every entity load. */
+    public static class PostLoadIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getEventListenerRegistry()
+                    .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) RequestStatistics::entityLoaded);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.config;
+
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Background jobs ({@code @Scheduled}); each job's cron is a property, {@code -} turns it off. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
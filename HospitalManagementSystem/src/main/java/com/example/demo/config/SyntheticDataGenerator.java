@@ -0,0 +1,445 @@
+package com.example.demo.config;
+
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.DepartmentRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Fills an empty database with a synthetic hospital of any size, e.g.
+ * {@code --seed.patients=1000000 --seed.appointments=5000000}. Nothing happens unless
+ * {@code seed.patients} is set. Every row's contents come from one seeded {@link Random}, drawn on the
+ * calling thread, so the same settings always produce the same dataset; only the persisting is spread
+ * over {@code seed.threads} workers, one transaction per batch. Ids depend on how the workers reserve
+ * id blocks and can differ between runs.
+ *
+ * <p>The shape follows a real clinic rather than a uniform spread: department sizes and doctor
+ * workloads are skewed, a minority of patients account for most visits, weekdays are busier than
+ * weekends, and past bookings are mostly completed with some cancellations and no-shows. A doctor is
+ * never booked twice for the same slot. Runs after the id generators are aligned and before
+ * {@link DataInitializer}, which then finds the departments and leaves the data alone.
+ */
+@Component
+@Order(0)
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final String[][] DEPARTMENTS = {
+            {"General Medicine", "General Physician"},
+            {"Pediatrics", "Pediatrician"},
+            {"Orthopedics", "Orthopedic Surgeon"},
+            {"Cardiology", "Cardiologist"},
+            {"Obstetrics and Gynecology", "Gynecologist"},
+            {"Dermatology", "Dermatologist"},
+            {"ENT", "ENT Specialist"},
+            {"Ophthalmology", "Ophthalmologist"},
+            {"Neurology", "Neurologist"},
+            {"Gastroenterology", "Gastroenterologist"},
+            {"Psychiatry", "Psychiatrist"},
+            {"Pulmonology", "Pulmonologist"},
+            {"Endocrinology", "Endocrinologist"},
+            {"Urology", "Urologist"},
+            {"Nephrology", "Nephrologist"},
+            {"Oncology", "Oncologist"},
+    };
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Aditi", "Amit", "Ananya", "Arjun", "Deepa", "Emily", "Farah", "Gaurav", "Hannah",
+            "Isha", "James", "Kavya", "Liam", "Meera", "Mohammed", "Neha", "Nikhil", "Olivia", "Pooja",
+            "Priya", "Rahul", "Riya", "Rohan", "Sarah", "Sneha", "Suresh", "Tanvi", "Vikram", "Zara",
+    };
+    private static final String[] LAST_NAMES = {
+            "Bhat", "Chen", "Desai", "Fernandes", "Gupta", "Iyer", "Joshi", "Kapoor", "Khan", "Kulkarni",
+            "Mehta", "Menon", "Mitchell", "Nair", "Patel", "Patil", "Rao", "Reddy", "Shah", "Sharma",
+            "Singh", "Smith", "Tapakire", "Verma", "Wilson",
+    };
+    private static final String[] STREETS = {
+            "MG Road", "Station Road", "Main St", "Oak Ave", "Park Lane", "Church Street", "Lake View Road",
+            "Gandhi Nagar", "Market Road", "College Road",
+    };
+    // Roughly the population frequencies of the ABO/Rh groups.
+    private static final String[] BLOOD_GROUPS = {"O+", "A+", "B+", "AB+", "O-", "A-", "B-", "AB-"};
+    private static final double[] BLOOD_GROUP_WEIGHTS = {37, 30, 12, 4, 7, 6, 2, 1};
+
+    private static final LocalTime DAY_START = LocalTime.of(9, 0);
+    private static final int SLOT_MINUTES = 30;
+    private static final int SLOTS_PER_DAY = 16;
+
+    private final DepartmentRepository departmentRepository;
+    private final TransactionTemplate batchTx;
+    private final int departments;
+    private final int doctors;
+    private final int patients;
+    private final int appointments;
+    private final int historyDays;
+    private final int futureDays;
+    private final long randomSeed;
+    private final int threads;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SyntheticDataGenerator(DepartmentRepository departmentRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${seed.departments:12}") int departments,
+                                  @Value("${seed.doctors:0}") int doctors,
+                                  @Value("${seed.patients:0}") int patients,
+                                  @Value("${seed.appointments:0}") int appointments,
+                                  @Value("${seed.history-days:365}") int historyDays,
+                                  @Value("${seed.future-days:60}") int futureDays,
+                                  @Value("${seed.random-seed:42}") long randomSeed,
+                                  @Value("${seed.threads:4}") int threads,
+                                  @Value("${seed.batch-size:1000}") int batchSize) {
+        this.departmentRepository = departmentRepository;
+        this.batchTx = new TransactionTemplate(transactionManager);
+        this.departments = Math.max(1, departments);
+        // One doctor per 500 patients unless told otherwise.
+        this.doctors = doctors > 0 ? doctors : Math.max(this.departments, patients / 500);
+        this.patients = patients;
+        this.appointments = appointments;
+        this.historyDays = historyDays;
+        this.futureDays = futureDays;
+        this.randomSeed = randomSeed;
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (patients <= 0) {
+            return;
+        }
+        if (departmentRepository.count() > 0) {
+            log.warn("Synthetic data generation skipped: the database already holds departments");
+            return;
+        }
+        long capacity = (long) doctors * (historyDays + futureDays + 1) * SLOTS_PER_DAY;
+        if (appointments > capacity) {
+            throw new IllegalStateException("seed.appointments=" + appointments + " does not fit " + doctors
+                    + " doctors over " + (historyDays + futureDays + 1) + " days (" + capacity + " slots)");
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Random random = new Random(randomSeed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Department> departmentRows = departments(random);
+            List<Doctor> doctorRows = doctors(random, departmentRows);
+            long[] patientIds = patients(random, pool);
+            appointments(random, pool, doctorRows, patientIds);
+        } finally {
+            pool.shutdown();
+        }
+        log.info("Generated {} departments, {} doctors, {} patients and {} appointments in {} ms",
+                departments, doctors, patients, appointments, System.currentTimeMillis() - startedAt);
+    }
+
+    private List<Department> departments(Random random) {
+        List<Department> rows = new ArrayList<>(departments);
+        batchTx.executeWithoutResult(status -> {
+            for (int i = 0; i < departments; i++) {
+                String[] kind = DEPARTMENTS[i % DEPARTMENTS.length];
+                String name = i < DEPARTMENTS.length ? kind[0] : kind[0] + " " + (i / DEPARTMENTS.length + 1);
+                Department department = Department.builder()
+                        .name(name)
+                        .description(kind[0] + " outpatient and inpatient services")
+                        .build();
+                entityManager.persist(department);
+                rows.add(department);
+            }
+        });
+        return rows;
+    }
+
+    private List<Doctor> doctors(Random random, List<Department> departmentRows) {
+        // The first departments are the large ones, the way general medicine outgrows oncology.
+        double[] departmentWeights = zipfWeights(departmentRows.size(), 0.8);
+        List<Doctor> rows = new ArrayList<>(doctors);
+        for (int from = 0; from < doctors; from += batchSize) {
+            int end = Math.min(doctors, from + batchSize);
+            int start = from;
+            batchTx.executeWithoutResult(status -> {
+                for (int i = start; i < end; i++) {
+                    // Every department gets at least one doctor.
+                    int d = i < departmentRows.size() ? i : pick(random, departmentWeights);
+                    Department department = departmentRows.get(d);
+                    String name = pickName(random);
+                    Doctor doctor = Doctor.builder()
+                            .name("Dr. " + name)
+                            .specialization(DEPARTMENTS[d % DEPARTMENTS.length][1])
+                            .email(emailOf(name, "doctor", i, "hospital.example"))
+                            .phone(String.format("555-%06d", i))
+                            .department(department)
+                            .build();
+                    entityManager.persist(doctor);
+                    rows.add(doctor);
+                }
+            });
+        }
+        return rows;
+    }
+
+    private long[] patients(Random random, ExecutorService pool) throws Exception {
+        double[] bloodGroups = cumulative(BLOOD_GROUP_WEIGHTS);
+        LocalDate today = LocalDate.now();
+        long[] ids = new long[patients];
+        try (BatchWriter<Patient> writer = new BatchWriter<>(pool)) {
+            List<Patient> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < patients; i++) {
+                String name = pickName(random);
+                // Ages 0-90, weighted towards adults and the elderly.
+                int age = (int) (90 * Math.sqrt(random.nextDouble()));
+                batch.add(Patient.builder()
+                        .name(name)
+                        .email(random.nextInt(10) < 8 ? emailOf(name, "patient", i, "mail.example") : null)
+                        .phone(String.format("+91-9%09d", i))
+                        .dateOfBirth(today.minusYears(age).minusDays(random.nextInt(365)))
+                        .address((1 + random.nextInt(400)) + " " + STREETS[random.nextInt(STREETS.length)])
+                        .bloodGroup(BLOOD_GROUPS[search(bloodGroups, random.nextDouble())])
+                        .build());
+                if (batch.size() == batchSize || i == patients - 1) {
+                    int first = i - batch.size() + 1;
+                    writer.submit(batch, persisted -> {
+                        for (int k = 0; k < persisted.size(); k++) {
+                            ids[first + k] = persisted.get(k).getId();
+                        }
+                    });
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void appointments(Random random, ExecutorService pool, List<Doctor> doctorRows, long[] patientIds)
+            throws Exception {
+        if (appointments <= 0) {
+            return;
+        }
+        int days = historyDays + futureDays + 1;
+        LocalDate firstDay = LocalDate.now().minusDays(historyDays);
+        LocalDateTime now = LocalDateTime.now();
+        // Doctor workloads are skewed, but in an order unrelated to their ids.
+        double[] doctorWeights = zipfWeights(doctorRows.size(), 0.6);
+        shuffle(random, doctorWeights);
+        double[] doctorCumulative = cumulative(doctorWeights);
+        BitSet[] booked = new BitSet[doctorRows.size()];
+
+        try (BatchWriter<Appointment> writer = new BatchWriter<>(pool)) {
+            List<Appointment> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < appointments; i++) {
+                int d = search(doctorCumulative, random.nextDouble());
+                int day = random.nextInt(days);
+                // Weekend clinics run at a fifth of the weekday load.
+                while (isWeekend(firstDay.plusDays(day)) && random.nextInt(5) != 0) {
+                    day = random.nextInt(days);
+                }
+                int wanted = day * SLOTS_PER_DAY + random.nextInt(SLOTS_PER_DAY);
+                int slot;
+                // A fully booked doctor passes the patient on to the next one with room.
+                while ((slot = freeSlot(booked, d, wanted, days)) < 0) {
+                    d = (d + 1) % booked.length;
+                }
+                LocalDateTime start = firstDay.plusDays(slot / SLOTS_PER_DAY)
+                        .atTime(DAY_START).plusMinutes((long) SLOT_MINUTES * (slot % SLOTS_PER_DAY));
+                // Squaring skews visits towards the low indexes: regulars and chronic patients.
+                double u = random.nextDouble();
+                int patient = (int) (patientIds.length * u * u);
+                Doctor doctor = doctorRows.get(d);
+                batch.add(Appointment.builder()
+                        .patient(Patient.builder().id(patientIds[patient]).build())
+                        .doctor(doctor)
+                        .department(doctor.getDepartment())
+                        .appointmentDate(start)
+                        .status(status(random, start.isBefore(now)))
+                        .build());
+                if (batch.size() == batchSize || i == appointments - 1) {
+                    writer.submit(batch, persisted -> { });
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Books the first free slot of the doctor at or after {@code wanted}, wrapping around the calendar,
+     * or returns -1 when the doctor has none left.
+     */
+    private static int freeSlot(BitSet[] booked, int doctor, int wanted, int days) {
+        int slots = days * SLOTS_PER_DAY;
+        if (booked[doctor] == null) {
+            booked[doctor] = new BitSet(slots);
+        }
+        BitSet calendar = booked[doctor];
+        int slot = calendar.nextClearBit(wanted);
+        if (slot >= slots) {
+            slot = calendar.nextClearBit(0);
+        }
+        if (slot >= slots) {
+            return -1;
+        }
+        calendar.set(slot);
+        return slot;
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    private static String status(Random random, boolean past) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 85 ? "COMPLETED" : roll < 93 ? "CANCELLED" : "NO_SHOW";
+        }
+        return roll < 95 ? "SCHEDULED" : "CANCELLED";
+    }
+
+    private static String pickName(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String emailOf(String name, String kind, int index, String domain) {
+        return name.toLowerCase().replace(' ', '.') + "." + kind + index + "@" + domain;
+    }
+
+    private static double[] zipfWeights(int n, double exponent) {
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1 / Math.pow(i + 1, exponent);
+        }
+        return weights;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double total = Arrays.stream(weights).sum();
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum / total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(Random random, double[] weights) {
+        return search(cumulative(weights), random.nextDouble());
+    }
+
+    /** Index of the first cumulative weight above {@code u}. */
+    private static int search(double[] cumulative, double u) {
+        int index = Arrays.binarySearch(cumulative, u);
+        index = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(index, cumulative.length - 1);
+    }
+
+    private static void shuffle(Random random, double[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    /**
+     * Persists batches on the worker pool, one transaction each, while the caller draws the next ones.
+     * At most two batches per worker wait in line so a huge dataset is never held in memory. Closing it
+     * waits for every batch and rethrows the first failure.
+     */
+    private final class BatchWriter<T> implements AutoCloseable {
+
+        private final ExecutorService pool;
+        private final Semaphore inFlight = new Semaphore(threads * 2);
+        private final List<Future<?>> pending = new ArrayList<>();
+
+        BatchWriter(ExecutorService pool) {
+            this.pool = pool;
+        }
+
+        void submit(List<T> batch, Consumer<List<T>> afterPersist) throws Exception {
+            inFlight.acquire();
+            pending.add(pool.submit(() -> {
+                try {
+                    batchTx.executeWithoutResult(status -> {
+                        // Generated rows would only churn the second-level cache.
+                        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                        for (T row : batch) {
+                            entityManager.persist(row instanceof Appointment appointment ? attach(appointment) : row);
+                        }
+                        entityManager.flush();
+                        entityManager.clear();
+                    });
+                    afterPersist.accept(batch);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+            for (Iterator<Future<?>> it = pending.iterator(); it.hasNext(); ) {
+                Future<?> future = it.next();
+                if (future.isDone()) {
+                    await(future);
+                    it.remove();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            for (Future<?> future : pending) {
+                await(future);
+            }
+        }
+
+        private void await(Future<?> future) throws Exception {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+
+        private Appointment attach(Appointment appointment) {
+            // References by id, so the batch never loads the patients and doctors it points at.
+            appointment.setPatient(entityManager.getReference(Patient.class, appointment.getPatient().getId()));
+            appointment.setDoctor(entityManager.getReference(Doctor.class, appointment.getDoctor().getId()));
+            if (appointment.getDepartment() != null) {
+                appointment.setDepartment(entityManager.getReference(Department.class, appointment.getDepartment().getId()));
+            }
+            return appointment;
+        }
+    }
+}
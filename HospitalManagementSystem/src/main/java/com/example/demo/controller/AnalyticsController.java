@@ -0,0 +1,58 @@
+package com.example.demo.controller;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.dto.RollupRebuildDTO;
+import com.example.demo.dto.UtilizationDTO;
+import com.example.demo.service.UtilizationRollups;
+import com.example.demo.service.UtilizationService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AnalyticsController {
+
+    private final UtilizationService utilizationService;
+    private final UtilizationRollups utilizationRollups;
+
+    @GetMapping("/utilization/doctors/{id}")
+    @QueryBudget(1)
+    public ResponseEntity<List<UtilizationDTO>> getDoctorUtilization(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(utilizationService.forDoctor(id, from, to,
+                UtilizationService.Granularity.parse(granularity)));
+    }
+
+    @GetMapping("/utilization/departments/{id}")
+    @QueryBudget(1)
+    public ResponseEntity<List<UtilizationDTO>> getDepartmentUtilization(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(utilizationService.forDepartment(id, from, to,
+                UtilizationService.Granularity.parse(granularity)));
+    }
+
+    /**
+     * Recomputes every rollup from the appointments and archive tables; only the date bounds
+     * are read on this thread.
+     */
+    @PostMapping("/utilization/rebuild")
+    @QueryBudget(1)
+    public ResponseEntity<RollupRebuildDTO> rebuild() {
+        return ResponseEntity.ok(utilizationRollups.rebuild());
+    }
+}
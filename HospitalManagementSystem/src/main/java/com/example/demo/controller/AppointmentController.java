@@ -3,13 +3,27 @@ package com.example.demo.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.config.QueryBudget;
 import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.ArchiveReportDTO;
+import com.example.demo.dto.AvailableSlotDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.dto.StatusSweepDTO;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.service.AppointmentArchive;
+import com.example.demo.service.AppointmentExportService;
 import com.example.demo.service.AppointmentService;
+import com.example.demo.service.AppointmentStatusSweep;
+import com.example.demo.service.AvailabilityService;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -19,38 +33,103 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final AppointmentExportService appointmentExportService;
+    private final AvailabilityService availabilityService;
+    private final AppointmentArchive appointmentArchive;
+    private final AppointmentStatusSweep appointmentStatusSweep;
 
+    /** A patient's first pages read the archive as well. */
     @GetMapping
-    public ResponseEntity<List<AppointmentDTO>> getAll(
+    @QueryBudget(2)
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getAll(
             @RequestParam(required = false) Long patientId,
-            @RequestParam(required = false) Long doctorId) {
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
         if (patientId != null) {
-            return ResponseEntity.ok(appointmentService.findByPatient(patientId));
+            return ResponseEntity.ok(appointmentService.findByPatient(patientId, after, limit));
         }
         if (doctorId != null) {
-            return ResponseEntity.ok(appointmentService.findByDoctor(doctorId));
+            return ResponseEntity.ok(appointmentService.findByDoctor(doctorId, after, limit));
         }
-        return ResponseEntity.ok(appointmentService.findAll());
+        return ResponseEntity.ok(appointmentService.findAll(after, limit));
     }
 
+    @GetMapping("/export")
+    @QueryBudget(1)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+        AppointmentExportService.Format exportFormat = AppointmentExportService.Format.parse(format);
+        StreamingResponseBody body = out -> appointmentExportService.export(
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay(), exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"appointments-" + from + "-" + to + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/availability")
+    @QueryBudget(2)
+    public ResponseEntity<List<AvailableSlotDTO>> getAvailability(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer slotMinutes,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(availabilityService.findFreeSlots(departmentId, specialization, from, to, slotMinutes, limit));
+    }
+
+    /** Ids missing from the hot table are looked up in the archive. */
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<AppointmentDTO> getById(@PathVariable Long id) {
         return ResponseEntity.ok(appointmentService.findById(id));
     }
 
     @PostMapping
+    @QueryBudget(5)
     public ResponseEntity<AppointmentDTO> create(@Valid @RequestBody AppointmentDTO dto) {
         return ResponseEntity.status(HttpStatus.CREATED).body(appointmentService.create(dto));
     }
 
     @PutMapping("/{id}")
+    @QueryBudget(4)
     public ResponseEntity<AppointmentDTO> update(@PathVariable Long id, @Valid @RequestBody AppointmentDTO dto) {
         return ResponseEntity.ok(appointmentService.update(id, dto));
     }
 
+    /** Same as PUT, which already leaves fields missing from the request unchanged. */
+    @PatchMapping("/{id}")
+    @QueryBudget(4)
+    public ResponseEntity<AppointmentDTO> patch(@PathVariable Long id, @Valid @RequestBody AppointmentDTO dto) {
+        return ResponseEntity.ok(appointmentService.update(id, dto));
+    }
+
     @DeleteMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         appointmentService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    /** Runs the archival job now instead of waiting for archive.cron. */
+    @PostMapping("/archive")
+    @QueryBudget(QueryBudget.UNLIMITED)
+    public ResponseEntity<ArchiveReportDTO> archive() {
+        return ResponseEntity.ok(appointmentArchive.archive());
+    }
+
+    /** Runs the stale-status sweep now instead of waiting for status-sweep.cron. */
+    @PostMapping("/status-sweep")
+    @QueryBudget(QueryBudget.UNLIMITED)
+    public ResponseEntity<StatusSweepDTO> sweepStatuses() {
+        return ResponseEntity.ok(appointmentStatusSweep.sweep());
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.demo.controller;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.dto.CacheRegionStatsDTO;
+import com.example.demo.dto.CacheStatsDTO;
+import com.example.demo.service.CacheStatsService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class CacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    @GetMapping("/stats")
+    @QueryBudget(0)
+    public ResponseEntity<List<CacheStatsDTO>> getStats() {
+        return ResponseEntity.ok(cacheStatsService.getStats());
+    }
+
+    @GetMapping("/stats/hibernate")
+    @QueryBudget(0)
+    public ResponseEntity<List<CacheRegionStatsDTO>> getHibernateStats() {
+        return ResponseEntity.ok(cacheStatsService.getHibernateStats());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.controller;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.dto.DashboardSummaryDTO;
+import com.example.demo.service.DashboardService;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/summary")
+    @QueryBudget(5)
+    public ResponseEntity<DashboardSummaryDTO> getSummary() {
+        return ResponseEntity.ok(dashboardService.getSummary());
+    }
+}
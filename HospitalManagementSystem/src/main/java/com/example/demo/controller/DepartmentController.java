@@ -1,5 +1,91 @@
 package com.example.demo.controller;
 
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.service.AppointmentCalendarService;
+import com.example.demo.service.DepartmentService;
+import com.example.demo.service.ResourceVersions;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/departments")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
 public class DepartmentController {
 
+    private final DepartmentService departmentService;
+    private final ResourceVersions resourceVersions;
+    private final AppointmentCalendarService appointmentCalendarService;
+
+    @GetMapping
+    @QueryBudget(1)
+    public ResponseEntity<List<DepartmentDTO>> getAll(WebRequest request) {
+        String etag = resourceVersions.collectionTag(ResourceVersions.Resource.DEPARTMENTS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(departmentService.findAll());
+    }
+
+    @GetMapping("/{id}")
+    @QueryBudget(1)
+    public ResponseEntity<DepartmentDTO> getById(@PathVariable Long id, WebRequest request) {
+        String etag = resourceVersions.itemTag(ResourceVersions.Resource.DEPARTMENTS, id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(departmentService.findById(id));
+    }
+
+    /** One day or one week ({@code span=week}, Monday to Sunday) of the department's appointments. */
+    @GetMapping("/{id}/calendar")
+    @QueryBudget(1)
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getCalendar(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "day") String span,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(appointmentCalendarService.findByDepartment(id, date,
+                AppointmentCalendarService.Span.parse(span), after, limit));
+    }
+
+    @PostMapping
+    @QueryBudget(1)
+    public ResponseEntity<DepartmentDTO> create(@Valid @RequestBody DepartmentDTO dto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(departmentService.create(dto));
+    }
+
+    @PutMapping("/{id}")
+    @QueryBudget(2)
+    public ResponseEntity<DepartmentDTO> update(@PathVariable Long id, @Valid @RequestBody DepartmentDTO dto) {
+        return ResponseEntity.ok(departmentService.update(id, dto));
+    }
+
+    /** Only the fields present in the request are changed. */
+    @PatchMapping("/{id}")
+    @QueryBudget(2)
+    public ResponseEntity<DepartmentDTO> patch(@PathVariable Long id, @Valid @RequestBody DepartmentDTO dto) {
+        return ResponseEntity.ok(departmentService.patch(id, dto));
+    }
+
+    @DeleteMapping("/{id}")
+    @QueryBudget(6)
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        departmentService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -3,14 +3,21 @@ package com.example.demo.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.config.QueryBudget;
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.CursorPageDTO;
 import com.example.demo.dto.DoctorDTO;
+import com.example.demo.service.AppointmentCalendarService;
 import com.example.demo.service.DoctorService;
+import com.example.demo.service.ResourceVersions;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/doctors")
@@ -19,31 +26,70 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final ResourceVersions resourceVersions;
+    private final AppointmentCalendarService appointmentCalendarService;
 
     @GetMapping
-    public ResponseEntity<List<DoctorDTO>> getAll(@RequestParam(required = false) Long departmentId) {
+    @QueryBudget(1)
+    public ResponseEntity<CursorPageDTO<DoctorDTO>> getAll(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        String etag = resourceVersions.collectionTag(ResourceVersions.Resource.DOCTORS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         if (departmentId != null) {
-            return ResponseEntity.ok(doctorService.findByDepartment(departmentId));
+            return ResponseEntity.ok().eTag(etag).body(doctorService.findByDepartment(departmentId, after, limit));
         }
-        return ResponseEntity.ok(doctorService.findAll());
+        return ResponseEntity.ok().eTag(etag).body(doctorService.findAll(after, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DoctorDTO> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(doctorService.findById(id));
+    @QueryBudget(1)
+    public ResponseEntity<DoctorDTO> getById(@PathVariable Long id, WebRequest request) {
+        String etag = resourceVersions.itemTag(ResourceVersions.Resource.DOCTORS, id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(doctorService.findById(id));
+    }
+
+    /** One day or one week ({@code span=week}, Monday to Sunday) of the doctor's appointments. */
+    @GetMapping("/{id}/calendar")
+    @QueryBudget(1)
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getCalendar(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "day") String span,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(appointmentCalendarService.findByDoctor(id, date,
+                AppointmentCalendarService.Span.parse(span), after, limit));
     }
 
     @PostMapping
+    @QueryBudget(2)
     public ResponseEntity<DoctorDTO> create(@Valid @RequestBody DoctorDTO dto) {
         return ResponseEntity.status(HttpStatus.CREATED).body(doctorService.create(dto));
     }
 
     @PutMapping("/{id}")
+    @QueryBudget(3)
     public ResponseEntity<DoctorDTO> update(@PathVariable Long id, @Valid @RequestBody DoctorDTO dto) {
         return ResponseEntity.ok(doctorService.update(id, dto));
     }
 
+    /** Only the fields present in the request are changed. */
+    @PatchMapping("/{id}")
+    @QueryBudget(3)
+    public ResponseEntity<DoctorDTO> patch(@PathVariable Long id, @Valid @RequestBody DoctorDTO dto) {
+        return ResponseEntity.ok(doctorService.patch(id, dto));
+    }
+
     @DeleteMapping("/{id}")
+    @QueryBudget(5)
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         doctorService.delete(id);
         return ResponseEntity.noContent().build();
@@ -1,16 +1,23 @@
 package com.example.demo.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.config.QueryBudget;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.dto.ImportReportDTO;
 import com.example.demo.dto.PatientDTO;
+import com.example.demo.service.PatientImportService;
 import com.example.demo.service.PatientService;
+import com.example.demo.service.ResourceVersions;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/patients")
@@ -19,28 +26,69 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping
-    public ResponseEntity<List<PatientDTO>> getAll() {
-        return ResponseEntity.ok(patientService.findAll());
+    @QueryBudget(1)
+    public ResponseEntity<CursorPageDTO<PatientDTO>> getAll(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        String etag = resourceVersions.collectionTag(ResourceVersions.Resource.PATIENTS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(patientService.findAll(after, limit));
+    }
+
+    @GetMapping("/search")
+    @QueryBudget(1)
+    public ResponseEntity<CursorPageDTO<PatientDTO>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(patientService.search(q, after, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDTO> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(patientService.findById(id));
+    @QueryBudget(1)
+    public ResponseEntity<PatientDTO> getById(@PathVariable Long id, WebRequest request) {
+        String etag = resourceVersions.itemTag(ResourceVersions.Resource.PATIENTS, id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(patientService.findById(id));
     }
 
     @PostMapping
+    @QueryBudget(1)
     public ResponseEntity<PatientDTO> create(@Valid @RequestBody PatientDTO dto) {
         return ResponseEntity.status(HttpStatus.CREATED).body(patientService.create(dto));
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @QueryBudget(QueryBudget.UNLIMITED)
+    public ResponseEntity<ImportReportDTO> importPatients(HttpServletRequest request) throws IOException {
+        PatientImportService.Format format = PatientImportService.Format.fromContentType(request.getContentType());
+        return ResponseEntity.ok(patientImportService.importPatients(request.getInputStream(), format));
+    }
+
     @PutMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<PatientDTO> update(@PathVariable Long id, @Valid @RequestBody PatientDTO dto) {
         return ResponseEntity.ok(patientService.update(id, dto));
     }
 
+    /** Only the fields present in the request are changed. */
+    @PatchMapping("/{id}")
+    @QueryBudget(2)
+    public ResponseEntity<PatientDTO> patch(@PathVariable Long id, @Valid @RequestBody PatientDTO dto) {
+        return ResponseEntity.ok(patientService.patch(id, dto));
+    }
+
     @DeleteMapping("/{id}")
+    @QueryBudget(7)
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         patientService.delete(id);
         return ResponseEntity.noContent().build();
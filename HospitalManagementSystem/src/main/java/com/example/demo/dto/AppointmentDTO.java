@@ -22,5 +22,6 @@ public class AppointmentDTO {
     private LocalDateTime appointmentDate;
     private String status;
     private String notes;
+    private Long version;
 }
 
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailableSlotDTO {
+    private Long doctorId;
+    private String doctorName;
+    private String specialization;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardSummaryDTO {
+    private long patientCount;
+    private long doctorCount;
+    private long departmentCount;
+    private long appointmentCount;
+    private List<AppointmentDTO> recentAppointments;
+    private LocalDateTime generatedAt;
+}
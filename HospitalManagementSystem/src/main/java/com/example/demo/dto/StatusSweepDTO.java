@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatusSweepDTO {
+    private LocalDateTime cutoff;
+    private String status;
+    private int chunks;
+    private long updated;
+    private long elapsedMillis;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** Appointments of one doctor or department in one day or week, by status. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UtilizationDTO {
+    private LocalDate periodStart;
+    private long scheduled;
+    private long completed;
+    private long cancelled;
+    private long noShow;
+    private long total;
+}
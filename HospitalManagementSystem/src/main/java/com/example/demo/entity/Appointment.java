@@ -8,18 +8,29 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "appointments")
+@DynamicUpdate
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_date_id", columnList = "appointment_date, id"),
+        // Calendar ranges: equality on the owner, range on the date, keyset order without a sort
+        @Index(name = "idx_appointments_doctor_date", columnList = "doctor_id, appointment_date, id"),
+        @Index(name = "idx_appointments_department_date", columnList = "department_id, appointment_date, id")
+})
 @Setter
 @Getter
 @NoArgsConstructor
@@ -28,7 +39,10 @@ import lombok.Setter;
 public class Appointment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_ids")
+    @TableGenerator(name = "appointment_ids", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.APPOINTMENTS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -50,6 +64,12 @@ public class Appointment {
 
     private String notes;
 
+    // Existing rows start at 0 when the column is added.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     public void setDefaultStatus() {
         if (status == null || status.isEmpty()) {
@@ -0,0 +1,66 @@
+package com.example.demo.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of appointments one doctor or department has on one day in one status. Maintained by
+ * {@code UtilizationRollups} on every appointment write and rebuilt from {@code appointments} on demand;
+ * nothing reads utilization from the appointments table itself.
+ */
+@Entity
+@Table(name = "appointment_rollups", indexes = {
+        @Index(name = "idx_appointment_rollups_owner_date", columnList = "scope, owner_id, rollup_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentRollup {
+
+    public static final String TABLE = "appointment_rollups";
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private long appointmentCount;
+
+    public enum Scope {
+        DOCTOR,
+        DEPARTMENT
+    }
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 16)
+        private Scope scope;
+
+        private Long ownerId;
+
+        private LocalDate rollupDate;
+
+        @Column(length = 16)
+        private String status;
+    }
+}
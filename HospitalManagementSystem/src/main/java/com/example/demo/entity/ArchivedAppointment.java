@@ -0,0 +1,59 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * An appointment moved out of {@code appointments} by {@code AppointmentArchive} once it is older than
+ * the archive horizon. Rows keep their id and are never changed again. Doctor and department are
+ * copied by id and name without foreign keys, so history outlives the doctor or department it refers
+ * to; it goes away only with its patient.
+ */
+@Entity
+@Table(name = "appointments_archive", indexes = {
+        @Index(name = "idx_appointments_archive_patient_date", columnList = "patient_id, appointment_date, id")
+})
+@Getter
+@NoArgsConstructor
+public class ArchivedAppointment {
+
+    public static final String TABLE = "appointments_archive";
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    @Column(nullable = false)
+    private Long doctorId;
+
+    private String doctorName;
+
+    private Long departmentId;
+
+    private String departmentName;
+
+    @Column(nullable = false)
+    private LocalDateTime appointmentDate;
+
+    private String status;
+
+    private String notes;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.entity;
+
+/**
+ * Shared settings for the pooled table-backed id generators. Each entity has one row in
+ * {@value #TABLE}; Hibernate reserves {@value #ALLOCATION_SIZE} ids per round-trip to that row and
+ * hands them out from memory, which keeps ids known before INSERT so inserts can be JDBC-batched
+ * (IDENTITY columns force one INSERT round-trip per entity).
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_sequences";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String DEPARTMENTS = "departments";
+    public static final String DOCTORS = "doctors";
+    public static final String PATIENTS = "patients";
+    public static final String APPOINTMENTS = "appointments";
+
+    private IdGenerators() {
+    }
+}
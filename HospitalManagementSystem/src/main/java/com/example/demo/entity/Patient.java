@@ -3,6 +3,9 @@ package com.example.demo.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +16,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patients")
+@DynamicUpdate
 @Table(name = "patients")
 @Data
 @NoArgsConstructor
@@ -21,7 +27,10 @@ import java.util.List;
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "patient_ids")
+    @TableGenerator(name = "patient_ids", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.PATIENTS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Patient name is required")
@@ -39,7 +48,8 @@ public class Patient {
 
     private String bloodGroup;
 
-    @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL)
+    // No cascade: PatientService.delete removes appointments with a bulk statement.
+    @OneToMany(mappedBy = "patient")
     @Builder.Default
     private List<Appointment> appointments = new ArrayList<>();
 }
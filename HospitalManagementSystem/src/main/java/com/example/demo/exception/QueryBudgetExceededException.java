@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * A request or transactional service method ran more SQL statements than its budget, or the same
+ * statement over and over (an N+1 pattern). Only thrown when {@code query-budget.enforce} is on, which
+ * the tests do; in production the overrun is logged instead.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,16 +1,198 @@
 package com.example.demo.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.AppointmentDTO;
 import com.example.demo.entity.Appointment;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+    /**
+     * Single joined select that maps straight into {@link AppointmentDTO}, so read paths
+     * never touch the lazy patient/doctor/department associations.
+     */
+    String DTO_SELECT = "select new com.example.demo.dto.AppointmentDTO("
+            + "a.id, p.id, p.name, d.id, d.name, dep.id, dep.name, a.appointmentDate, a.status, a.notes, a.version) "
+            + "from Appointment a join a.patient p join a.doctor d left join a.department dep";
+
+    /** Keyset order for list pages; served by the (appointment_date, id) index. */
+    String KEYSET_ORDER = " order by a.appointmentDate, a.id";
+    String AFTER_CURSOR = "(a.appointmentDate > :afterDate or (a.appointmentDate = :afterDate and a.id > :afterId))";
+
     List<Appointment> findByPatientId(Long patientId);
     List<Appointment> findByDoctorId(Long doctorId);
     List<Appointment> findByAppointmentDateBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Forward-only cursor over a date range for exports. Rows are DTOs, so nothing accumulates in the
+     * persistence context; the fetch size keeps the driver from buffering the whole result
+     * (on MySQL only with {@code useCursorFetch}, see application.properties). The stream must be closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + " where a.appointmentDate >= :start and a.appointmentDate < :end" + KEYSET_ORDER)
+    Stream<AppointmentDTO> streamByAppointmentDateBetween(@Param("start") LocalDateTime start,
+                                                         @Param("end") LocalDateTime end);
+
+    /** Doctor/time pairs that still occupy a slot, for warming the in-memory schedule index. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select a.id as id, a.doctor.id as doctorId, a.appointmentDate as appointmentDate from Appointment a "
+            + "where a.appointmentDate >= :from and (a.status is null or a.status <> 'CANCELLED')")
+    Stream<SlotView> streamActiveSlotsFrom(@Param("from") LocalDateTime from);
+
+    @Query("select a.id from Appointment a where a.patient.id = :patientId")
+    List<Long> findIdsByPatientId(@Param("patientId") Long patientId);
+
+    @Query("select a.id from Appointment a where a.doctor.id = :doctorId")
+    List<Long> findIdsByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query("select a.id from Appointment a where a.department.id = :departmentId or a.doctor.department.id = :departmentId")
+    List<Long> findIdsByDepartmentId(@Param("departmentId") Long departmentId);
+
+    /*
+     * Set-based deletes, for a single appointment and as the cascades of the patient, doctor and
+     * department deletes: one statement each, nothing loaded into the persistence context.
+     */
+    @Modifying
+    @Query("delete from Appointment a where a.id = :id")
+    int bulkDeleteById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Appointment a where a.patient.id = :patientId")
+    int bulkDeleteByPatientId(@Param("patientId") Long patientId);
+
+    @Modifying
+    @Query("delete from Appointment a where a.doctor.id = :doctorId")
+    int bulkDeleteByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Modifying
+    @Query("delete from Appointment a where a.department.id = :departmentId "
+            + "or a.doctor.id in (select d.id from Doctor d where d.department.id = :departmentId)")
+    int bulkDeleteByDepartmentId(@Param("departmentId") Long departmentId);
+
+    /** Oldest first, by the (appointment_date, id) index; one archival batch. */
+    @Query("select a.id from Appointment a where a.appointmentDate < :cutoff" + KEYSET_ORDER)
+    List<Long> findIdsBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * One chunk of the status sweep: past appointments still scheduled, oldest first by the
+     * (appointment_date, id) index, locked until the chunk's transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.id as id, a.appointmentDate as appointmentDate from Appointment a "
+            + "where a.appointmentDate < :cutoff and (a.status = 'SCHEDULED' or a.status is null) and "
+            + AFTER_CURSOR + KEYSET_ORDER)
+    List<KeyView> findScheduledBefore(@Param("cutoff") LocalDateTime cutoff,
+                                      @Param("afterDate") LocalDateTime afterDate,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
+
+    /** Set-based status change; bumps the version so edits based on an earlier read are rejected. */
+    @Modifying
+    @Query("update Appointment a set a.status = :status, a.version = a.version + 1 where a.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    @Query(DTO_SELECT + " where a.id = :id")
+    Optional<AppointmentDTO> findDTOById(@Param("id") Long id);
+
+    /** The entity for an edit, with the associations its response needs joined in. */
+    @EntityGraph(attributePaths = {"patient", "doctor", "department"})
+    @Query("select a from Appointment a where a.id = :id")
+    Optional<Appointment> findForUpdateById(@Param("id") Long id);
+
+    @Query(DTO_SELECT + KEYSET_ORDER)
+    List<AppointmentDTO> findFirstPage(Limit limit);
+
+    @Query(DTO_SELECT + " where " + AFTER_CURSOR + KEYSET_ORDER)
+    List<AppointmentDTO> findPageAfter(@Param("afterDate") LocalDateTime afterDate,
+                                       @Param("afterId") Long afterId, Limit limit);
+
+    @Query(DTO_SELECT + " where p.id = :patientId" + KEYSET_ORDER)
+    List<AppointmentDTO> findFirstPageByPatientId(@Param("patientId") Long patientId, Limit limit);
+
+    @Query(DTO_SELECT + " where p.id = :patientId and " + AFTER_CURSOR + KEYSET_ORDER)
+    List<AppointmentDTO> findPageByPatientIdAfter(@Param("patientId") Long patientId,
+                                                  @Param("afterDate") LocalDateTime afterDate,
+                                                  @Param("afterId") Long afterId, Limit limit);
+
+    @Query(DTO_SELECT + " where d.id = :doctorId" + KEYSET_ORDER)
+    List<AppointmentDTO> findFirstPageByDoctorId(@Param("doctorId") Long doctorId, Limit limit);
+
+    @Query(DTO_SELECT + " where d.id = :doctorId and " + AFTER_CURSOR + KEYSET_ORDER)
+    List<AppointmentDTO> findPageByDoctorIdAfter(@Param("doctorId") Long doctorId,
+                                                 @Param("afterDate") LocalDateTime afterDate,
+                                                 @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Calendar ranges filter on the foreign key columns of appointments with {@code fk()}; a plain
+     * {@code a.doctor.id} is moved onto the joined doctors row, and the database then scans by date alone.
+     * This way the range scan runs on the (doctor_id, appointment_date, id) or
+     * (department_id, appointment_date, id) index. The order repeats the constant owner column so that
+     * it matches the index as written and a page stops after its rows instead of sorting the whole range.
+     */
+    String DOCTOR_RANGE = " where fk(a.doctor) = :doctorId and a.appointmentDate >= :start and a.appointmentDate < :end";
+    String DOCTOR_ORDER = " order by fk(a.doctor), a.appointmentDate, a.id";
+    String DEPARTMENT_RANGE = " where fk(a.department) = :departmentId and a.appointmentDate >= :start and a.appointmentDate < :end";
+    String DEPARTMENT_ORDER = " order by fk(a.department), a.appointmentDate, a.id";
+
+    @Query(DTO_SELECT + DOCTOR_RANGE + DOCTOR_ORDER)
+    List<AppointmentDTO> findCalendarByDoctorId(@Param("doctorId") Long doctorId,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end, Limit limit);
+
+    @Query(DTO_SELECT + DOCTOR_RANGE + " and " + AFTER_CURSOR + DOCTOR_ORDER)
+    List<AppointmentDTO> findCalendarByDoctorIdAfter(@Param("doctorId") Long doctorId,
+                                                     @Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end,
+                                                     @Param("afterDate") LocalDateTime afterDate,
+                                                     @Param("afterId") Long afterId, Limit limit);
+
+    @Query(DTO_SELECT + DEPARTMENT_RANGE + DEPARTMENT_ORDER)
+    List<AppointmentDTO> findCalendarByDepartmentId(@Param("departmentId") Long departmentId,
+                                                    @Param("start") LocalDateTime start,
+                                                    @Param("end") LocalDateTime end, Limit limit);
+
+    @Query(DTO_SELECT + DEPARTMENT_RANGE + " and " + AFTER_CURSOR + DEPARTMENT_ORDER)
+    List<AppointmentDTO> findCalendarByDepartmentIdAfter(@Param("departmentId") Long departmentId,
+                                                         @Param("start") LocalDateTime start,
+                                                         @Param("end") LocalDateTime end,
+                                                         @Param("afterDate") LocalDateTime afterDate,
+                                                         @Param("afterId") Long afterId, Limit limit);
+
+    @Query(DTO_SELECT + " order by a.id desc")
+    List<AppointmentDTO> findLatestDTOs(Limit limit);
+
+    interface KeyView {
+        Long getId();
+
+        LocalDateTime getAppointmentDate();
+    }
+
+    interface SlotView {
+        Long getId();
+
+        Long getDoctorId();
+
+        LocalDateTime getAppointmentDate();
+    }
 }
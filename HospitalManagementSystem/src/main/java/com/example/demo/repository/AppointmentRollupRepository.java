@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.AppointmentRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AppointmentRollupRepository extends JpaRepository<AppointmentRollup, AppointmentRollup.Key> {
+
+    /** Served by the (scope, owner_id, rollup_date) index. */
+    @Query("select r.key.rollupDate as rollupDate, r.key.status as status, r.appointmentCount as appointmentCount "
+            + "from AppointmentRollup r where r.key.scope = :scope and r.key.ownerId = :ownerId "
+            + "and r.key.rollupDate >= :from and r.key.rollupDate <= :to and r.appointmentCount <> 0")
+    List<CountView> findCounts(@Param("scope") AppointmentRollup.Scope scope, @Param("ownerId") Long ownerId,
+                               @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    interface CountView {
+        LocalDate getRollupDate();
+
+        String getStatus();
+
+        long getAppointmentCount();
+    }
+}
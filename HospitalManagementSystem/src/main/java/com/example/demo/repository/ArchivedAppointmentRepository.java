@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.entity.ArchivedAppointment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    /** Same shape as {@link AppointmentRepository#DTO_SELECT}; doctor and department are the archived copies. */
+    String DTO_SELECT = "select new com.example.demo.dto.AppointmentDTO("
+            + "a.id, p.id, p.name, a.doctorId, a.doctorName, a.departmentId, a.departmentName, "
+            + "a.appointmentDate, a.status, a.notes, a.version) "
+            + "from ArchivedAppointment a join a.patient p";
+
+    @Query(DTO_SELECT + " where a.id = :id")
+    Optional<AppointmentDTO> findDTOById(@Param("id") Long id);
+
+    /** Served by the (patient_id, appointment_date, id) index. */
+    @Query(DTO_SELECT + " where fk(a.patient) = :patientId" + AppointmentRepository.KEYSET_ORDER)
+    List<AppointmentDTO> findFirstPageByPatientId(@Param("patientId") Long patientId, Limit limit);
+
+    @Query(DTO_SELECT + " where fk(a.patient) = :patientId and " + AppointmentRepository.AFTER_CURSOR
+            + AppointmentRepository.KEYSET_ORDER)
+    List<AppointmentDTO> findPageByPatientIdAfter(@Param("patientId") Long patientId,
+                                                  @Param("afterDate") LocalDateTime afterDate,
+                                                  @Param("afterId") Long afterId,
+                                                  Limit limit);
+}
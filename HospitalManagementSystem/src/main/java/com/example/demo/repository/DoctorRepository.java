@@ -1,7 +1,14 @@
 package com.example.demo.repository;
 
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entity.Doctor;
@@ -10,6 +17,21 @@ import java.util.List;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Doctor> findByDepartmentId(Long departmentId);
+
     List<Doctor> findBySpecializationContainingIgnoreCase(String specialization);
+
+    @Query("select d from Doctor d left join fetch d.department where d.id > :afterId order by d.id")
+    List<Doctor> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select d from Doctor d left join fetch d.department dep "
+            + "where dep.id = :departmentId and d.id > :afterId order by d.id")
+    List<Doctor> findPageByDepartmentIdAfter(@Param("departmentId") Long departmentId,
+                                             @Param("afterId") long afterId, Limit limit);
+
+    /** Part of the department delete; evicts the whole doctors region, as any bulk statement does. */
+    @Modifying
+    @Query("delete from Doctor d where d.department.id = :departmentId")
+    int bulkDeleteByDepartmentId(@Param("departmentId") Long departmentId);
 }
@@ -1,14 +1,39 @@
 package com.example.demo.repository;
 
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entity.Patient;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
-    List<Patient> findByNameContainingIgnoreCase(String name);
+    List<Patient> findByNameContainingIgnoreCase(String name, Limit limit);
+
+    @Query("select p from Patient p where p.id > :afterId order by p.id")
+    List<Patient> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    /** Searchable fields of every patient, for warming the in-memory search index. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id as id, p.name as name, p.email as email, p.phone as phone from Patient p")
+    Stream<SearchView> streamSearchFields();
+
+    interface SearchView {
+        Long getId();
+
+        String getName();
+
+        String getEmail();
+
+        String getPhone();
+    }
 }
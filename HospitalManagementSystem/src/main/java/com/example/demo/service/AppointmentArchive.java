@@ -0,0 +1,162 @@
+package com.example.demo.service;
+
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.ArchiveReportDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.ArchivedAppointment;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.ArchivedAppointmentRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves appointments older than {@code archive.horizon-days} from {@code appointments} into
+ * {@link ArchivedAppointment}, so the hot table and its indexes only hold the recent past and the
+ * future. The job runs on {@code archive.cron} and on demand, oldest first, {@code archive.batch-size}
+ * appointments per transaction: each batch copies its rows with one {@code insert ... select} and
+ * deletes them by id, so row locks are held for one batch only.
+ *
+ * <p>Everything in the archive is older than the current cutoff, which only moves forward, so readers
+ * only look here for positions before it; see {@link AppointmentService#findByPatient}. Raising
+ * {@code archive.horizon-days} does not move rows back: archived rows newer than the new cutoff are then
+ * skipped by those reads.
+ */
+@Slf4j
+@Component
+public class AppointmentArchive {
+
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final UtilizationRollups rollups;
+    private final TransactionTemplate batchTx;
+    private final int horizonDays;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AppointmentArchive(AppointmentRepository appointmentRepository,
+                              ArchivedAppointmentRepository archiveRepository,
+                              DoctorScheduleIndex scheduleIndex,
+                              UtilizationRollups rollups,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${archive.horizon-days:365}") int horizonDays,
+                              @Value("${archive.batch-size:500}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.archiveRepository = archiveRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.rollups = rollups;
+        this.batchTx = new TransactionTemplate(transactionManager);
+        this.horizonDays = horizonDays;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /** Appointments before this belong in the archive. */
+    LocalDateTime cutoff() {
+        return LocalDate.now().minusDays(horizonDays).atStartOfDay();
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 2 * * *}")
+    public void archiveOnSchedule() {
+        if (running.get()) {
+            return;
+        }
+        ArchiveReportDTO report = archive();
+        log.info("Archived {} appointments before {} in {} batches, {} ms",
+                report.getArchived(), report.getCutoff(), report.getBatches(), report.getElapsedMillis());
+    }
+
+    public ArchiveReportDTO archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("Archival is already running");
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            LocalDateTime cutoff = cutoff();
+            int batches = 0;
+            long archived = 0;
+            int moved;
+            do {
+                LocalDateTime archivedAt = LocalDateTime.now();
+                moved = batchTx.execute(status -> moveBatch(cutoff, archivedAt));
+                archived += moved;
+                batches += moved > 0 ? 1 : 0;
+            } while (moved == batchSize);
+            return ArchiveReportDTO.builder()
+                    .cutoff(cutoff)
+                    .batches(batches)
+                    .archived(archived)
+                    .elapsedMillis(System.currentTimeMillis() - startedAt)
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int moveBatch(LocalDateTime cutoff, LocalDateTime archivedAt) {
+        List<Long> ids = appointmentRepository.findIdsBefore(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Query copy = entityManager.createNativeQuery("insert into " + ArchivedAppointment.TABLE
+                + " (id, patient_id, doctor_id, doctor_name, department_id, department_name, appointment_date,"
+                + " status, notes, version, archived_at)"
+                + " select a.id, a.patient_id, a.doctor_id, d.name, a.department_id, dep.name, a.appointment_date,"
+                + " a.status, a.notes, a.version, :archivedAt"
+                + " from appointments a join doctors d on d.id = a.doctor_id"
+                + " left join departments dep on dep.id = a.department_id where a.id in (:ids)");
+        NativeQueries.synchronizedWith(copy, ArchivedAppointment.class)
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        Query delete = entityManager.createNativeQuery("delete from appointments where id in (:ids)");
+        NativeQueries.synchronizedWith(delete, Appointment.class)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        scheduleIndex.release(ids);
+        return ids.size();
+    }
+
+    /** The patient's archived appointments after {@code cursor}, or none when the cursor is past the cutoff. */
+    List<AppointmentDTO> findByPatient(Long patientId, KeysetCursor.DateId cursor, int limit) {
+        if (cursor == null) {
+            return archiveRepository.findFirstPageByPatientId(patientId, Limit.of(limit));
+        }
+        if (!cursor.date().isBefore(cutoff())) {
+            return List.of();
+        }
+        return archiveRepository.findPageByPatientIdAfter(patientId, cursor.date(), cursor.id(), Limit.of(limit));
+    }
+
+    Optional<AppointmentDTO> findById(Long id) {
+        return archiveRepository.findDTOById(id);
+    }
+
+    /** Drops a patient's archived appointments, and their rollup counts; part of deleting the patient. */
+    void removePatient(Long patientId) {
+        rollups.removedArchivedForPatient(patientId);
+        Query delete = entityManager.createNativeQuery("delete from " + ArchivedAppointment.TABLE + " where patient_id = ?1");
+        NativeQueries.synchronizedWith(delete, ArchivedAppointment.class)
+                .setParameter(1, patientId)
+                .executeUpdate();
+    }
+}
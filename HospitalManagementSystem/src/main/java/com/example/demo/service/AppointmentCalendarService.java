@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.repository.AppointmentRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A doctor's or a department's appointments for one day or one week, in keyset pages ordered by time.
+ * Every page is a single range scan on the (doctor_id, appointment_date, id) or
+ * (department_id, appointment_date, id) index.
+ */
+@Service
+@RequiredArgsConstructor
+public class AppointmentCalendarService {
+
+    private final AppointmentRepository appointmentRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AppointmentDTO> findByDoctor(Long doctorId, LocalDate date, Span span, String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        KeysetCursor.DateId cursor = KeysetCursor.decodeDateId(after);
+        LocalDateTime start = span.start(date);
+        LocalDateTime end = span.end(date);
+        List<AppointmentDTO> rows = cursor == null
+                ? appointmentRepository.findCalendarByDoctorId(doctorId, start, end, Limit.of(size + 1))
+                : appointmentRepository.findCalendarByDoctorIdAfter(doctorId, start, end, cursor.date(), cursor.id(),
+                        Limit.of(size + 1));
+        return toPage(rows, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AppointmentDTO> findByDepartment(Long departmentId, LocalDate date, Span span, String after,
+                                                         int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        KeysetCursor.DateId cursor = KeysetCursor.decodeDateId(after);
+        LocalDateTime start = span.start(date);
+        LocalDateTime end = span.end(date);
+        List<AppointmentDTO> rows = cursor == null
+                ? appointmentRepository.findCalendarByDepartmentId(departmentId, start, end, Limit.of(size + 1))
+                : appointmentRepository.findCalendarByDepartmentIdAfter(departmentId, start, end, cursor.date(),
+                        cursor.id(), Limit.of(size + 1));
+        return toPage(rows, size);
+    }
+
+    private CursorPageDTO<AppointmentDTO> toPage(List<AppointmentDTO> rows, int size) {
+        return KeysetCursor.page(rows, size, a -> KeysetCursor.encodeDateId(a.getAppointmentDate(), a.getId()));
+    }
+
+    /** The calendar period around a date: that day, or its Monday-to-Sunday week. */
+    public enum Span {
+        DAY,
+        WEEK;
+
+        LocalDateTime start(LocalDate date) {
+            LocalDate first = this == WEEK ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : date;
+            return first.atStartOfDay();
+        }
+
+        LocalDateTime end(LocalDate date) {
+            return start(date).plusDays(this == WEEK ? 7 : 1);
+        }
+
+        public static Span parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported calendar span: " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.repository.AppointmentRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes appointments for a date range straight from a database cursor to the response body,
+ * flushing every {@value #FLUSH_EVERY} rows, so memory use does not depend on the size of the range.
+ */
+@Service
+@RequiredArgsConstructor
+public class AppointmentExportService {
+
+    static final int FLUSH_EVERY = 500;
+
+    private static final String CSV_HEADER =
+            "id,patientId,patientName,doctorId,doctorName,departmentId,departmentName,appointmentDate,status,notes";
+
+    private final AppointmentRepository appointmentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(LocalDateTime start, LocalDateTime end, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<AppointmentDTO> rows = appointmentRepository.streamByAppointmentDateBetween(start, end)) {
+            Iterator<AppointmentDTO> it = rows.iterator();
+            int written = 0;
+            while (it.hasNext()) {
+                AppointmentDTO row = it.next();
+                if (format == Format.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                }
+                writer.write('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, AppointmentDTO row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getPatientId()));
+        writer.write(',');
+        writer.write(csv(row.getPatientName()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getDoctorId()));
+        writer.write(',');
+        writer.write(csv(row.getDoctorName()));
+        writer.write(',');
+        writer.write(row.getDepartmentId() != null ? String.valueOf(row.getDepartmentId()) : "");
+        writer.write(',');
+        writer.write(csv(row.getDepartmentName()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getAppointmentDate()));
+        writer.write(',');
+        writer.write(csv(row.getStatus()));
+        writer.write(',');
+        writer.write(csv(row.getNotes()));
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+}
@@ -4,98 +4,169 @@ package com.example.demo.service;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.dto.DoctorDTO;
 import com.example.demo.entity.Appointment;
-import com.example.demo.entity.Department;
-import com.example.demo.entity.Doctor;
 import com.example.demo.entity.*;
+import com.example.demo.exception.ConflictException;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.repository.AppointmentRepository;
 import com.example.demo.repository.DepartmentRepository;
 import com.example.demo.repository.DoctorRepository;
 import com.example.demo.repository.PatientRepository;
 
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
 
+    private static final Comparator<AppointmentDTO> KEYSET_ORDER =
+            Comparator.comparing(AppointmentDTO::getAppointmentDate).thenComparing(AppointmentDTO::getId);
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final DepartmentRepository departmentRepository;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final DoctorService doctorService;
+    private final DepartmentService departmentService;
+    private final UtilizationRollups rollups;
+    private final AppointmentArchive archive;
+    private final AppointmentStatusSweep statusSweep;
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> findAll() {
-        return appointmentRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<AppointmentDTO> findAll(String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        KeysetCursor.DateId cursor = KeysetCursor.decodeDateId(after);
+        List<AppointmentDTO> rows = cursor == null
+                ? appointmentRepository.findFirstPage(Limit.of(size + 1))
+                : appointmentRepository.findPageAfter(cursor.date(), cursor.id(), Limit.of(size + 1));
+        return toPage(rows, size);
     }
 
+    /** Archived appointments are found too, but only here and in {@link #findByPatient}. */
     @Transactional(readOnly = true)
     public AppointmentDTO findById(Long id) {
-        Appointment appointment = appointmentRepository.findById(id)
+        return appointmentRepository.findDTOById(id)
+                .or(() -> archive.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
-        return toDTO(appointment);
     }
 
+    /**
+     * The patient's full history: a page of the hot table merged with a page of the archive. Once the
+     * cursor is past the archive cutoff the archive is not read, so paging through recent appointments
+     * costs one query.
+     */
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> findByPatient(Long patientId) {
-        return appointmentRepository.findByPatientId(patientId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<AppointmentDTO> findByPatient(Long patientId, String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        KeysetCursor.DateId cursor = KeysetCursor.decodeDateId(after);
+        List<AppointmentDTO> rows = cursor == null
+                ? appointmentRepository.findFirstPageByPatientId(patientId, Limit.of(size + 1))
+                : appointmentRepository.findPageByPatientIdAfter(patientId, cursor.date(), cursor.id(), Limit.of(size + 1));
+        List<AppointmentDTO> archived = archive.findByPatient(patientId, cursor, size + 1);
+        if (!archived.isEmpty()) {
+            rows = Stream.concat(archived.stream(), rows.stream())
+                    .sorted(KEYSET_ORDER)
+                    .limit(size + 1)
+                    .toList();
+        }
+        return toPage(rows, size);
     }
 
     @Transactional(readOnly = true)
-    public List<AppointmentDTO> findByDoctor(Long doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<AppointmentDTO> findByDoctor(Long doctorId, String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        KeysetCursor.DateId cursor = KeysetCursor.decodeDateId(after);
+        List<AppointmentDTO> rows = cursor == null
+                ? appointmentRepository.findFirstPageByDoctorId(doctorId, Limit.of(size + 1))
+                : appointmentRepository.findPageByDoctorIdAfter(doctorId, cursor.date(), cursor.id(), Limit.of(size + 1));
+        return toPage(rows, size);
     }
 
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> findLatest(int limit) {
+        return appointmentRepository.findLatestDTOs(Limit.of(limit));
+    }
+
+    /**
+     * Doctor and department come from the reference-data cache and are attached as reference proxies.
+     * The patient is checked up front; it is second-level cached, so that is usually free, and the
+     * response needs its name anyway. Persisting takes an id from the pooled generator without an
+     * INSERT, so the schedule index admits or rejects the booking before the row is written; a
+     * rejected booking never reaches the database.
+     */
     @Transactional
     public AppointmentDTO create(AppointmentDTO dto) {
-        Patient patient = patientRepository.findById(dto.getPatientId())
-                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + dto.getPatientId()));
-        Doctor doctor = doctorRepository.findById(dto.getDoctorId())
-                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + dto.getDoctorId()));
-        Department department = dto.getDepartmentId() != null
-                ? departmentRepository.findById(dto.getDepartmentId()).orElse(doctor.getDepartment())
-                : doctor.getDepartment();
+        Patient patient = findPatient(dto.getPatientId());
+        DoctorDTO doctor = doctorService.findById(dto.getDoctorId());
+        DepartmentDTO department = findDepartment(dto.getDepartmentId());
+        if (department == null) {
+            department = findDepartment(doctor.getDepartmentId());
+        }
 
         Appointment appointment = Appointment.builder()
                 .patient(patient)
-                .doctor(doctor)
-                .department(department)
+                .doctor(doctorRepository.getReferenceById(doctor.getId()))
+                .department(department != null ? departmentRepository.getReferenceById(department.getId()) : null)
                 .appointmentDate(dto.getAppointmentDate())
                 .status(dto.getStatus() != null ? dto.getStatus() : "SCHEDULED")
                 .notes(dto.getNotes())
                 .build();
         appointment = appointmentRepository.save(appointment);
-        return toDTO(appointment);
+        if (occupiesSlot(appointment)) {
+            scheduleIndex.reserve(appointment.getId(), doctor.getId(), appointment.getAppointmentDate());
+        }
+        rollups.added(UtilizationRollups.Counted.of(appointment));
+        statusSweep.written(appointment);
+        appointmentRepository.flush();
+        return AppointmentDTO.builder()
+                .id(appointment.getId())
+                .patientId(patient.getId())
+                .patientName(patient.getName())
+                .doctorId(doctor.getId())
+                .doctorName(doctor.getName())
+                .departmentId(department != null ? department.getId() : null)
+                .departmentName(department != null ? department.getName() : null)
+                .appointmentDate(appointment.getAppointmentDate())
+                .status(appointment.getStatus())
+                .notes(appointment.getNotes())
+                .version(appointment.getVersion())
+                .build();
     }
 
+    /**
+     * Serves both PUT and PATCH: fields left null keep their stored values, and the UPDATE only writes
+     * the columns that changed. A {@code version} in the request must match the stored one, so an edit
+     * based on a stale read is rejected; concurrent writers racing on the same row are caught by the
+     * {@code @Version} check at flush.
+     */
     @Transactional
     public AppointmentDTO update(Long id, AppointmentDTO dto) {
-        Appointment appointment = appointmentRepository.findById(id)
+        Appointment appointment = appointmentRepository.findForUpdateById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
+        if (dto.getVersion() != null && !dto.getVersion().equals(appointment.getVersion())) {
+            throw new ConflictException("Appointment " + id + " was changed by someone else; reload it and try again");
+        }
+        UtilizationRollups.Counted before = UtilizationRollups.Counted.of(appointment);
 
-        if (dto.getPatientId() != null) {
-            Patient patient = patientRepository.findById(dto.getPatientId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + dto.getPatientId()));
-            appointment.setPatient(patient);
+        if (dto.getPatientId() != null && !dto.getPatientId().equals(appointment.getPatient().getId())) {
+            appointment.setPatient(findPatient(dto.getPatientId()));
         }
-        if (dto.getDoctorId() != null) {
-            Doctor doctor = doctorRepository.findById(dto.getDoctorId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + dto.getDoctorId()));
-            appointment.setDoctor(doctor);
-            if (doctor.getDepartment() != null) {
-                appointment.setDepartment(doctor.getDepartment());
+        if (dto.getDoctorId() != null && !dto.getDoctorId().equals(appointment.getDoctor().getId())) {
+            DoctorDTO doctor = doctorService.findById(dto.getDoctorId());
+            appointment.setDoctor(doctorRepository.getReferenceById(doctor.getId()));
+            if (doctor.getDepartmentId() != null) {
+                appointment.setDepartment(departmentRepository.getReferenceById(doctor.getDepartmentId()));
             }
         }
         if (dto.getAppointmentDate() != null) {
@@ -107,20 +178,51 @@ public class AppointmentService {
         if (dto.getNotes() != null) {
             appointment.setNotes(dto.getNotes());
         }
+        scheduleIndex.reschedule(id, appointment.getDoctor().getId(), appointment.getAppointmentDate(),
+                occupiesSlot(appointment));
+        rollups.changed(before, UtilizationRollups.Counted.of(appointment));
+        statusSweep.written(appointment);
 
-        appointment = appointmentRepository.save(appointment);
+        // Flush so the response carries the incremented version.
+        appointment = appointmentRepository.saveAndFlush(appointment);
         return toDTO(appointment);
     }
 
+    /** Two statements and nothing loaded: the rollups read the row on their own, then one DELETE. */
     @Transactional
     public void delete(Long id) {
-        if (!appointmentRepository.existsById(id)) {
+        rollups.removedAppointment(id);
+        if (appointmentRepository.bulkDeleteById(id) == 0) {
             throw new ResourceNotFoundException("Appointment not found with id: " + id);
         }
-        appointmentRepository.deleteById(id);
+        scheduleIndex.release(id);
+    }
+
+    private Patient findPatient(Long id) {
+        return patientRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
+    }
+
+    private DepartmentDTO findDepartment(Long id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return departmentService.findById(id);
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static boolean occupiesSlot(Appointment appointment) {
+        return !"CANCELLED".equals(appointment.getStatus());
+    }
+
+    private CursorPageDTO<AppointmentDTO> toPage(List<AppointmentDTO> rows, int size) {
+        return KeysetCursor.page(rows, size, a -> KeysetCursor.encodeDateId(a.getAppointmentDate(), a.getId()));
     }
 
-    private AppointmentDTO toDTO(Appointment appointment) {
+    AppointmentDTO toDTO(Appointment appointment) {
         return AppointmentDTO.builder()
                 .id(appointment.getId())
                 .patientId(appointment.getPatient().getId())
@@ -132,6 +234,7 @@ public class AppointmentService {
                 .appointmentDate(appointment.getAppointmentDate())
                 .status(appointment.getStatus())
                 .notes(appointment.getNotes())
+                .version(appointment.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.StatusSweepDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.repository.AppointmentRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moves appointments still {@code SCHEDULED} more than {@code status-sweep.grace-hours} after their
+ * time to {@code status-sweep.stale-status} ({@code NO_SHOW} or {@code COMPLETED}). The sweep walks
+ * the (appointment_date, id) index in chunks of {@code status-sweep.chunk-size}; each chunk locks its
+ * rows, moves their rollup counts and updates them with one {@code update ... where id in}, all in one
+ * short transaction, then waits {@code status-sweep.pause-ms} before the next.
+ *
+ * <p>Each run starts where the previous one's cutoff was, so a run only reads what became stale since.
+ * Appointment writes report scheduled appointments dated in the swept past through {@link #written};
+ * once the write commits, the next run's start moves back to them and a run already in progress does
+ * not advance past it, since it may have passed the row before the row was visible.
+ *
+ * <p>Metrics: {@code hospital.status.sweep.rows} (appointments moved, by status),
+ * {@code hospital.status.sweep.chunk} (time per chunk transaction) and {@code hospital.status.sweep}
+ * (time per run, pauses included).
+ */
+@Slf4j
+@Component
+public class AppointmentStatusSweep {
+
+    private static final Set<String> STALE_STATUSES = Set.of("NO_SHOW", "COMPLETED");
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    private final AppointmentRepository appointmentRepository;
+    private final UtilizationRollups rollups;
+    private final TransactionTemplate chunkTx;
+    private final Duration grace;
+    private final String staleStatus;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final Counter rowsMoved;
+    private final Timer chunkTimer;
+    private final Timer runTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<Watermark> sweptUntil = new AtomicReference<>(new Watermark(BEGINNING));
+
+    public AppointmentStatusSweep(AppointmentRepository appointmentRepository,
+                                  UtilizationRollups rollups,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${status-sweep.grace-hours:24}") long graceHours,
+                                  @Value("${status-sweep.stale-status:NO_SHOW}") String staleStatus,
+                                  @Value("${status-sweep.chunk-size:500}") int chunkSize,
+                                  @Value("${status-sweep.pause-ms:50}") long pauseMillis) {
+        this.staleStatus = staleStatus.toUpperCase(Locale.ROOT);
+        if (!STALE_STATUSES.contains(this.staleStatus)) {
+            throw new IllegalArgumentException("status-sweep.stale-status must be one of " + STALE_STATUSES
+                    + ", not " + staleStatus);
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.rollups = rollups;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.grace = Duration.ofHours(graceHours);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.rowsMoved = Counter.builder("hospital.status.sweep.rows")
+                .description("Appointments moved by the status sweep")
+                .tag("status", this.staleStatus)
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("hospital.status.sweep.chunk")
+                .description("Status sweep time per chunk transaction")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("hospital.status.sweep")
+                .description("Status sweep time per run, pauses included")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${status-sweep.cron:0 */15 * * * *}")
+    public void sweepOnSchedule() {
+        if (running.get()) {
+            return;
+        }
+        StatusSweepDTO report = sweep();
+        if (report.getUpdated() > 0) {
+            log.info("Status sweep moved {} appointments before {} to {} in {} chunks, {} ms",
+                    report.getUpdated(), report.getCutoff(), report.getStatus(), report.getChunks(),
+                    report.getElapsedMillis());
+        }
+    }
+
+    public StatusSweepDTO sweep() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A status sweep is already running");
+        }
+        long startedAt = System.nanoTime();
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+            Watermark from = sweptUntil.get();
+            LocalDateTime afterDate = from.until();
+            Long afterId = 0L;
+            int chunks = 0;
+            long updated = 0;
+            while (true) {
+                long chunkStartedAt = System.nanoTime();
+                List<AppointmentRepository.KeyView> chunk = sweepChunk(cutoff, afterDate, afterId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                chunkTimer.record(System.nanoTime() - chunkStartedAt, TimeUnit.NANOSECONDS);
+                rowsMoved.increment(chunk.size());
+                chunks++;
+                updated += chunk.size();
+                if (chunk.size() < chunkSize || !pause()) {
+                    break;
+                }
+                AppointmentRepository.KeyView last = chunk.get(chunk.size() - 1);
+                afterDate = last.getAppointmentDate();
+                afterId = last.getId();
+            }
+            // Unless a write committed meanwhile
+            if (!Thread.currentThread().isInterrupted()) {
+                sweptUntil.compareAndSet(from, new Watermark(cutoff));
+            }
+            return StatusSweepDTO.builder()
+                    .cutoff(cutoff)
+                    .status(staleStatus)
+                    .chunks(chunks)
+                    .updated(updated)
+                    .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt))
+                    .build();
+        } finally {
+            runTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+    }
+
+    /** Called for every appointment created or updated, so a scheduled one in the swept past is not missed. */
+    void written(Appointment appointment) {
+        LocalDateTime date = appointment.getAppointmentDate();
+        if ("SCHEDULED".equals(appointment.getStatus()) && date.isBefore(LocalDateTime.now().minus(grace))) {
+            // Always a new watermark, even when the start stays put, so a run in progress fails its CAS
+            TransactionCallbacks.afterCommit(() -> sweptUntil.updateAndGet(current ->
+                    new Watermark(date.isBefore(current.until()) ? date : current.until())));
+        }
+    }
+
+    private List<AppointmentRepository.KeyView> sweepChunk(LocalDateTime cutoff, LocalDateTime afterDate, Long afterId) {
+        return chunkTx.execute(status -> {
+            List<AppointmentRepository.KeyView> chunk =
+                    appointmentRepository.findScheduledBefore(cutoff, afterDate, afterId, Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                return chunk;
+            }
+            List<Long> ids = chunk.stream().map(AppointmentRepository.KeyView::getId).toList();
+            rollups.statusChanging(ids, staleStatus);
+            appointmentRepository.updateStatus(ids, staleStatus);
+            return chunk;
+        });
+    }
+
+    /** Compared by identity: each committed write in the swept past replaces it. */
+    private record Watermark(LocalDateTime until) {
+    }
+
+    /** Returns false when interrupted, which ends the run early. */
+    private boolean pause() {
+        if (pauseMillis == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
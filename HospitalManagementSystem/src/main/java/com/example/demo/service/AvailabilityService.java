@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.AvailableSlotDTO;
+import com.example.demo.entity.Doctor;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.repository.DoctorRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Free-slot search across the doctors of a department or specialization. Candidate slots start at
+ * opening time and step by the requested slot length until closing time; each candidate is checked
+ * against the doctors' occupancy bitmaps from {@link DoctorScheduleIndex}, so no appointment rows are
+ * read. Results come back earliest first, then by doctor id.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final int DEFAULT_DAYS = 14;
+    private static final int MAX_DAYS = 62;
+    private static final long GRANULE_SECONDS = DoctorScheduleIndex.GRANULE_MINUTES * 60L;
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+
+    public AvailabilityService(DoctorRepository doctorRepository,
+                               DoctorScheduleIndex scheduleIndex,
+                               @Value("${appointments.day-start:09:00}") LocalTime dayStart,
+                               @Value("${appointments.day-end:17:00}") LocalTime dayEnd) {
+        if (!dayEnd.isAfter(dayStart)) {
+            throw new IllegalArgumentException("appointments.day-end must be after appointments.day-start");
+        }
+        this.doctorRepository = doctorRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+    }
+
+    @Transactional(readOnly = true)
+    public List<AvailableSlotDTO> findFreeSlots(Long departmentId, String specialization, LocalDate from,
+                                                LocalDate to, Integer slotMinutes, int limit) {
+        LocalDate today = LocalDate.now();
+        LocalDate first = from == null || from.isBefore(today) ? today : from;
+        LocalDate last = to != null ? to : first.plusDays(DEFAULT_DAYS - 1);
+        if (last.isBefore(first)) {
+            throw new BadRequestException("'to' must not be before 'from' or today");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= MAX_DAYS) {
+            throw new BadRequestException("Availability can be searched at most " + MAX_DAYS + " days at a time");
+        }
+        Duration length = slotMinutes != null ? Duration.ofMinutes(slotMinutes) : scheduleIndex.getSlotLength();
+        if (length.isNegative() || length.isZero() || length.compareTo(Duration.between(dayStart, dayEnd)) > 0) {
+            throw new BadRequestException("Slot length must be positive and fit between "
+                    + dayStart + " and " + dayEnd);
+        }
+
+        List<Doctor> doctors = findDoctors(departmentId, specialization);
+        int size = KeysetCursor.clampLimit(limit);
+        List<AvailableSlotDTO> slots = new ArrayList<>();
+        if (doctors.isEmpty()) {
+            return slots;
+        }
+
+        // A booking made in a free slot still blocks the doctor for at least the configured slot length.
+        long lengthSeconds = length.toSeconds();
+        long blockedSeconds = Math.max(lengthSeconds, scheduleIndex.getSlotLength().toSeconds());
+        long openSecond = dayStart.toSecondOfDay();
+        long closeSecond = dayEnd.toSecondOfDay();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            BitSet[] occupancy = new BitSet[doctors.size()];
+            for (int i = 0; i < doctors.size(); i++) {
+                occupancy[i] = scheduleIndex.occupancy(doctors.get(i).getId(), day);
+            }
+            for (long second = openSecond; second + lengthSeconds <= closeSecond; second += lengthSeconds) {
+                LocalDateTime start = day.atStartOfDay().plusSeconds(second);
+                if (start.isBefore(now)) {
+                    continue;
+                }
+                int fromBit = (int) (second / GRANULE_SECONDS);
+                int toBit = (int) Math.min(DoctorScheduleIndex.GRANULES_PER_DAY,
+                        (second + blockedSeconds + GRANULE_SECONDS - 1) / GRANULE_SECONDS);
+                for (int i = 0; i < doctors.size(); i++) {
+                    int busy = occupancy[i].nextSetBit(fromBit);
+                    if (busy < 0 || busy >= toBit) {
+                        slots.add(toDTO(doctors.get(i), start, start.plus(length)));
+                        if (slots.size() == size) {
+                            return slots;
+                        }
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    private List<Doctor> findDoctors(Long departmentId, String specialization) {
+        List<Doctor> doctors;
+        if (departmentId != null) {
+            doctors = new ArrayList<>(doctorRepository.findByDepartmentId(departmentId));
+        } else if (specialization != null && !specialization.isBlank()) {
+            doctors = new ArrayList<>(doctorRepository.findBySpecializationContainingIgnoreCase(specialization.trim()));
+        } else {
+            throw new BadRequestException("Either 'departmentId' or 'specialization' is required");
+        }
+        doctors.sort(Comparator.comparing(Doctor::getId));
+        return doctors;
+    }
+
+    private AvailableSlotDTO toDTO(Doctor doctor, LocalDateTime start, LocalDateTime end) {
+        return AvailableSlotDTO.builder()
+                .doctorId(doctor.getId())
+                .doctorName(doctor.getName())
+                .specialization(doctor.getSpecialization())
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
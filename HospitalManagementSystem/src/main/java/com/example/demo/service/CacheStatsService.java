@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.CacheRegionStatsDTO;
+import com.example.demo.dto.CacheStatsDTO;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public List<CacheStatsDTO> getStats() {
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /** Hibernate second-level and query cache regions; requires hibernate.generate_statistics. */
+    public List<CacheRegionStatsDTO> getHibernateStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toDTO(region, statistics.getCacheRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private CacheRegionStatsDTO toDTO(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            return null;
+        }
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return CacheRegionStatsDTO.builder()
+                .region(region)
+                .hitCount(stats.getHitCount())
+                .missCount(stats.getMissCount())
+                .putCount(stats.getPutCount())
+                .hitRate(lookups == 0 ? 0 : (double) stats.getHitCount() / lookups)
+                // JCache-backed regions cannot report their size.
+                .elementCount(stats.getElementCountInMemory() >= 0 ? stats.getElementCountInMemory() : null)
+                .build();
+    }
+
+    private CacheStatsDTO toDTO(Cache cache) {
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+                (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+        return CacheStatsDTO.builder()
+                .name(cache.getName())
+                .size(nativeCache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
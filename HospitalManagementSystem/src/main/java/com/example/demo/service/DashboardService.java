@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.DashboardSummaryDTO;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.DoctorRepository;
+import com.example.demo.repository.PatientRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Builds the dashboard from COUNT queries and a bounded "latest appointments" query.
+ * The result is kept for a short TTL so that concurrent dashboard loads share one computation.
+ */
+@Service
+public class DashboardService {
+
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final DepartmentRepository departmentRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final TransactionTemplate readOnlyTx;
+    private final long cacheTtlNanos;
+    private final int recentLimit;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile CachedSummary cached;
+
+    public DashboardService(PatientRepository patientRepository,
+                            DoctorRepository doctorRepository,
+                            DepartmentRepository departmentRepository,
+                            AppointmentRepository appointmentRepository,
+                            AppointmentService appointmentService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${dashboard.summary.cache-ttl:5s}") Duration cacheTtl,
+                            @Value("${dashboard.summary.recent-limit:5}") int recentLimit) {
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.departmentRepository = departmentRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentService = appointmentService;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.recentLimit = recentLimit;
+    }
+
+    public DashboardSummaryDTO getSummary() {
+        CachedSummary current = cached;
+        if (current != null && current.isFresh(cacheTtlNanos)) {
+            return current.summary;
+        }
+        refreshLock.lock();
+        try {
+            current = cached;
+            if (current == null || !current.isFresh(cacheTtlNanos)) {
+                current = new CachedSummary(readOnlyTx.execute(status -> load()), System.nanoTime());
+                cached = current;
+            }
+            return current.summary;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private DashboardSummaryDTO load() {
+        return DashboardSummaryDTO.builder()
+                .patientCount(patientRepository.count())
+                .doctorCount(doctorRepository.count())
+                .departmentCount(departmentRepository.count())
+                .appointmentCount(appointmentRepository.count())
+                .recentAppointments(appointmentService.findLatest(recentLimit))
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static final class CachedSummary {
+        private final DashboardSummaryDTO summary;
+        private final long loadedAt;
+
+        private CachedSummary(DashboardSummaryDTO summary, long loadedAt) {
+            this.summary = summary;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isFresh(long ttlNanos) {
+            return System.nanoTime() - loadedAt < ttlNanos;
+        }
+    }
+}
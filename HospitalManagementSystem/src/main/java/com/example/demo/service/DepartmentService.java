@@ -2,13 +2,20 @@ package com.example.demo.service;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.config.CacheConfig;
 import com.example.demo.dto.DepartmentDTO;
 import com.example.demo.entity.Department;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.AppointmentRepository;
 import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.DoctorRepository;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,7 +25,14 @@ import java.util.stream.Collectors;
 public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final UtilizationRollups rollups;
+    private final ResourceVersions resourceVersions;
+    private final CacheManager cacheManager;
 
+    @Cacheable(cacheNames = CacheConfig.DEPARTMENT_LIST, key = "'all'")
     @Transactional(readOnly = true)
     public List<DepartmentDTO> findAll() {
         return departmentRepository.findAll().stream()
@@ -26,13 +40,16 @@ public class DepartmentService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    /** A miss does not mark a caller's transaction rollback-only, so callers may treat it as optional. */
+    @Cacheable(cacheNames = CacheConfig.DEPARTMENTS, key = "#id")
+    @Transactional(readOnly = true, noRollbackFor = ResourceNotFoundException.class)
     public DepartmentDTO findById(Long id) {
         Department department = departmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + id));
         return toDTO(department);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_LIST, allEntries = true)
     @Transactional
     public DepartmentDTO create(DepartmentDTO dto) {
         Department department = Department.builder()
@@ -40,9 +57,16 @@ public class DepartmentService {
                 .description(dto.getDescription())
                 .build();
         department = departmentRepository.save(department);
+        resourceVersions.created(ResourceVersions.Resource.DEPARTMENTS);
         return toDTO(department);
     }
 
+    // Doctor DTOs carry the department name, so they go too.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.DEPARTMENT_LIST, CacheConfig.DOCTORS, CacheConfig.DOCTOR_PAGES},
+                    allEntries = true)
+    })
     @Transactional
     public DepartmentDTO update(Long id, DepartmentDTO dto) {
         Department department = departmentRepository.findById(id)
@@ -50,18 +74,54 @@ public class DepartmentService {
         department.setName(dto.getName());
         department.setDescription(dto.getDescription());
         department = departmentRepository.save(department);
+        resourceVersions.changed(ResourceVersions.Resource.DEPARTMENTS, id);
+        resourceVersions.changedAll(ResourceVersions.Resource.DOCTORS);
         return toDTO(department);
     }
 
+    /**
+     * As {@link #update}, but fields left null keep their stored values. The caches and ETags that
+     * {@link #update} invalidates are left alone when nothing changed; the evictions, like the annotated
+     * ones, are deferred to commit by the transaction-aware cache manager.
+     */
     @Transactional
-    public void delete(Long id) {
-        if (!departmentRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Department not found with id: " + id);
+    public DepartmentDTO patch(Long id, DepartmentDTO dto) {
+        Department department = departmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + id));
+        boolean changed = Patches.apply(dto.getName(), department.getName(), department::setName)
+                | Patches.apply(dto.getDescription(), department.getDescription(), department::setDescription);
+        if (changed) {
+            cacheManager.getCache(CacheConfig.DEPARTMENTS).evict(id);
+            for (String cacheName : List.of(CacheConfig.DEPARTMENT_LIST, CacheConfig.DOCTORS, CacheConfig.DOCTOR_PAGES)) {
+                cacheManager.getCache(cacheName).clear();
+            }
+            resourceVersions.changed(ResourceVersions.Resource.DEPARTMENTS, id);
+            resourceVersions.changedAll(ResourceVersions.Resource.DOCTORS);
         }
-        departmentRepository.deleteById(id);
+        return toDTO(department);
+    }
+
+    // Deleting a department cascades to its doctors and their appointments with set-based statements,
+    // so nothing but the department itself is loaded.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.DEPARTMENT_LIST, CacheConfig.DOCTORS, CacheConfig.DOCTOR_PAGES},
+                    allEntries = true)
+    })
+    @Transactional
+    public void delete(Long id) {
+        Department department = departmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + id));
+        scheduleIndex.release(appointmentRepository.findIdsByDepartmentId(id));
+        rollups.removedForDepartment(id);
+        appointmentRepository.bulkDeleteByDepartmentId(id);
+        doctorRepository.bulkDeleteByDepartmentId(id);
+        departmentRepository.delete(department);
+        resourceVersions.changed(ResourceVersions.Resource.DEPARTMENTS, id);
+        resourceVersions.changedAll(ResourceVersions.Resource.DOCTORS);
     }
 
-    private DepartmentDTO toDTO(Department department) {
+    DepartmentDTO toDTO(Department department) {
         return DepartmentDTO.builder()
                 .id(department.getId())
                 .name(department.getName())
@@ -0,0 +1,308 @@
+package com.example.demo.service;
+
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.exception.ConflictException;
+import com.example.demo.repository.AppointmentRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of booked slots per doctor, used to reject double-bookings without a query on the
+ * booking path. Every appointment occupies {@code [start, start + slot-length)}; two appointments of
+ * the same doctor overlap when their starts are less than one slot apart, which is two lookups in a
+ * sorted map.
+ * <p>
+ * Alongside the sorted map each doctor keeps one occupancy bitmap per day, a bit per
+ * {@value #GRANULE_MINUTES}-minute granule that any booking touches, so free-slot searches read a few
+ * words per doctor and day instead of walking bookings.
+ * <p>
+ * A booking claims its slot inside the writing transaction, under a per-doctor lock, and the claim is
+ * undone if that transaction rolls back. Slots given up by an update or delete are only released
+ * after commit, so a slot is never offered to someone else while the change that frees it can still
+ * roll back. Only slots from the start of today onwards are tracked. The index is per JVM; with more
+ * than one application instance it narrows, but does not close, the double-booking window.
+ */
+@Slf4j
+@Component
+public class DoctorScheduleIndex {
+
+    public static final int GRANULE_MINUTES = 5;
+    public static final int GRANULES_PER_DAY = 24 * 60 / GRANULE_MINUTES;
+
+    private static final long GRANULE_SECONDS = GRANULE_MINUTES * 60L;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60L;
+    private static final long WARM_UP_TIMEOUT_SECONDS = 60;
+
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration slotLength;
+
+    private final Map<Long, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+    private final CountDownLatch warmedUp = new CountDownLatch(1);
+    private volatile RuntimeException warmUpFailure;
+
+    public DoctorScheduleIndex(AppointmentRepository appointmentRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${appointments.slot-length:30m}") Duration slotLength) {
+        this.appointmentRepository = appointmentRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.slotLength = slotLength;
+    }
+
+    /**
+     * Loads the bookings from today on. A failure is rethrown, which stops the application from
+     * starting; bookings still waiting on the index are released with that failure rather than left to
+     * time out.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.currentTimeMillis();
+        LocalDateTime horizon = horizon();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<AppointmentRepository.SlotView> slots = appointmentRepository.streamActiveSlotsFrom(horizon)) {
+                    slots.forEach(slot -> {
+                        DoctorSchedule schedule = schedule(slot.getDoctorId());
+                        schedule.slots.put(slot.getAppointmentDate(), slot.getId());
+                        occupy(schedule, slot.getAppointmentDate());
+                        bookings.put(slot.getId(), new Booking(slot.getDoctorId(), slot.getAppointmentDate()));
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            schedules.clear();
+            bookings.clear();
+            warmUpFailure = e;
+            log.error("Doctor schedule index failed to warm up", e);
+            throw e;
+        } finally {
+            warmedUp.countDown();
+        }
+        log.info("Doctor schedule index warmed with {} bookings for {} doctors in {} ms",
+                bookings.size(), schedules.size(), System.currentTimeMillis() - started);
+    }
+
+    public Duration getSlotLength() {
+        return slotLength;
+    }
+
+    /** Claims the slot for a new appointment; the claim is dropped if the current transaction rolls back. */
+    public void reserve(Long appointmentId, Long doctorId, LocalDateTime start) {
+        Booking booking = new Booking(doctorId, start);
+        if (!claim(appointmentId, booking)) {
+            return;
+        }
+        bookings.put(appointmentId, booking);
+        TransactionCallbacks.onCompletion(null, () -> {
+            unclaim(appointmentId, booking);
+            bookings.remove(appointmentId, booking);
+        });
+    }
+
+    /**
+     * Moves an appointment to a new doctor/time, or drops it from the index when {@code active} is false
+     * (cancelled). The new slot is claimed now; the old one is released only once the change commits.
+     */
+    public void reschedule(Long appointmentId, Long doctorId, LocalDateTime start, boolean active) {
+        Booking previous = bookings.get(appointmentId);
+        Booking next = active ? new Booking(doctorId, start) : null;
+        if (Objects.equals(previous, next)) {
+            return;
+        }
+        boolean claimed = next != null && claim(appointmentId, next);
+        TransactionCallbacks.onCompletion(() -> {
+            if (previous != null) {
+                unclaim(appointmentId, previous);
+            }
+            if (claimed) {
+                bookings.put(appointmentId, next);
+            } else {
+                bookings.remove(appointmentId);
+            }
+        }, () -> {
+            if (claimed) {
+                unclaim(appointmentId, next);
+            }
+        });
+    }
+
+    /** Releases the slot of a deleted appointment once the delete commits. */
+    public void release(Long appointmentId) {
+        release(List.of(appointmentId));
+    }
+
+    /** Releases the slots of appointments removed by a cascading delete once it commits. */
+    public void release(Collection<Long> appointmentIds) {
+        if (appointmentIds.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.onCompletion(() -> appointmentIds.forEach(appointmentId -> {
+            Booking previous = bookings.remove(appointmentId);
+            if (previous != null) {
+                unclaim(appointmentId, previous);
+            }
+        }), null);
+    }
+
+    /**
+     * Copy of the doctor's occupancy bitmap for one day: bit {@code i} is set when a booking overlaps the
+     * {@value #GRANULE_MINUTES}-minute granule starting {@code i * GRANULE_MINUTES} minutes after midnight.
+     */
+    public BitSet occupancy(Long doctorId, LocalDate day) {
+        awaitWarmUp();
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return new BitSet(GRANULES_PER_DAY);
+        }
+        schedule.lock.lock();
+        try {
+            BitSet bits = schedule.occupancy.get(day);
+            return bits != null ? (BitSet) bits.clone() : new BitSet(GRANULES_PER_DAY);
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    /**
+     * Checks the doctor's slot and records the booking. Returns false when the slot lies before the
+     * tracked horizon and is therefore not indexed.
+     */
+    private boolean claim(Long appointmentId, Booking booking) {
+        LocalDateTime horizon = horizon();
+        if (booking.start.isBefore(horizon)) {
+            return false;
+        }
+        awaitWarmUp();
+        DoctorSchedule schedule = schedule(booking.doctorId);
+        schedule.lock.lock();
+        try {
+            NavigableMap<LocalDateTime, Long> past = schedule.slots.headMap(horizon, false);
+            past.values().forEach(bookings::remove);
+            past.clear();
+            schedule.occupancy.keySet().removeIf(day -> day.isBefore(horizon.toLocalDate()));
+            Map.Entry<LocalDateTime, Long> before = schedule.slots.floorEntry(booking.start);
+            Map.Entry<LocalDateTime, Long> after = schedule.slots.higherEntry(booking.start);
+            checkFree(appointmentId, booking, before);
+            checkFree(appointmentId, booking, after);
+            schedule.slots.put(booking.start, appointmentId);
+            occupy(schedule, booking.start);
+            return true;
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    private void checkFree(Long appointmentId, Booking booking, Map.Entry<LocalDateTime, Long> neighbour) {
+        if (neighbour == null || neighbour.getValue().equals(appointmentId)) {
+            return;
+        }
+        Duration gap = Duration.between(neighbour.getKey(), booking.start).abs();
+        if (gap.compareTo(slotLength) < 0) {
+            throw new ConflictException("Doctor " + booking.doctorId + " already has appointment "
+                    + neighbour.getValue() + " at " + neighbour.getKey());
+        }
+    }
+
+    private void unclaim(Long appointmentId, Booking booking) {
+        DoctorSchedule schedule = schedules.get(booking.doctorId);
+        if (schedule == null) {
+            return;
+        }
+        schedule.lock.lock();
+        try {
+            if (schedule.slots.remove(booking.start, appointmentId)) {
+                recomputeOccupancy(schedule, booking.start);
+            }
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    /** Sets the granules covered by a booking starting at {@code start}; caller holds the doctor's lock. */
+    private void occupy(DoctorSchedule schedule, LocalDateTime start) {
+        LocalDateTime end = start.plus(slotLength);
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            LocalDateTime midnight = day.atStartOfDay();
+            long fromSecond = Math.max(0, Duration.between(midnight, start).toSeconds());
+            long toSecond = Math.min(SECONDS_PER_DAY, Duration.between(midnight, end).toSeconds());
+            int fromBit = (int) (fromSecond / GRANULE_SECONDS);
+            int toBit = (int) ((toSecond + GRANULE_SECONDS - 1) / GRANULE_SECONDS);
+            if (fromBit < toBit) {
+                schedule.occupancy.computeIfAbsent(day, d -> new BitSet(GRANULES_PER_DAY)).set(fromBit, toBit);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the bitmaps of the days a removed booking touched from the bookings that remain, since a
+     * granule may be shared with a neighbour; caller holds the doctor's lock.
+     */
+    private void recomputeOccupancy(DoctorSchedule schedule, LocalDateTime removedStart) {
+        LocalDate first = removedStart.toLocalDate();
+        LocalDate last = removedStart.plus(slotLength).minusNanos(1).toLocalDate();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            schedule.occupancy.remove(day);
+        }
+        LocalDateTime from = first.atStartOfDay().minus(slotLength);
+        LocalDateTime to = last.plusDays(1).atStartOfDay();
+        for (LocalDateTime start : schedule.slots.subMap(from, false, to, false).keySet()) {
+            occupy(schedule, start);
+        }
+    }
+
+    private DoctorSchedule schedule(Long doctorId) {
+        return schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule());
+    }
+
+    private void awaitWarmUp() {
+        try {
+            if (!warmedUp.await(WARM_UP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Doctor schedule index is still warming up");
+            }
+            if (warmUpFailure != null) {
+                throw new IllegalStateException("Doctor schedule index failed to warm up", warmUpFailure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the doctor schedule index", e);
+        }
+    }
+
+    private static LocalDateTime horizon() {
+        return LocalDate.now().atStartOfDay();
+    }
+
+    private static final class DoctorSchedule {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final NavigableMap<LocalDateTime, Long> slots = new TreeMap<>();
+        private final Map<LocalDate, BitSet> occupancy = new HashMap<>();
+    }
+
+    private record Booking(Long doctorId, LocalDateTime start) {
+    }
+}
@@ -2,13 +2,19 @@ package com.example.demo.service;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.config.CacheConfig;
+import com.example.demo.dto.CursorPageDTO;
 import com.example.demo.dto.DoctorDTO;
-import com.example.demo.entity.Department;
 import com.example.demo.entity.Doctor;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.AppointmentRepository;
 import com.example.demo.repository.DepartmentRepository;
 import com.example.demo.repository.DoctorRepository;
 
@@ -20,22 +26,34 @@ import java.util.stream.Collectors;
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final UtilizationRollups rollups;
     private final DepartmentRepository departmentRepository;
+    private final ResourceVersions resourceVersions;
 
+    @Cacheable(cacheNames = CacheConfig.DOCTOR_PAGES, key = "{'all', #after, #limit}")
     @Transactional(readOnly = true)
-    public List<DoctorDTO> findAll() {
-        return doctorRepository.findAll().stream()
+    public CursorPageDTO<DoctorDTO> findAll(String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        List<DoctorDTO> rows = doctorRepository.findPageAfter(KeysetCursor.decodeId(after), Limit.of(size + 1)).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
+        return KeysetCursor.page(rows, size, d -> KeysetCursor.encodeId(d.getId()));
     }
 
+    @Cacheable(cacheNames = CacheConfig.DOCTOR_PAGES, key = "{#departmentId, #after, #limit}")
     @Transactional(readOnly = true)
-    public List<DoctorDTO> findByDepartment(Long departmentId) {
-        return doctorRepository.findByDepartmentId(departmentId).stream()
+    public CursorPageDTO<DoctorDTO> findByDepartment(Long departmentId, String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        List<DoctorDTO> rows = doctorRepository
+                .findPageByDepartmentIdAfter(departmentId, KeysetCursor.decodeId(after), Limit.of(size + 1)).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
+        return KeysetCursor.page(rows, size, d -> KeysetCursor.encodeId(d.getId()));
     }
 
+    @Cacheable(cacheNames = CacheConfig.DOCTORS, key = "#id")
     @Transactional(readOnly = true)
     public DoctorDTO findById(Long id) {
         Doctor doctor = doctorRepository.findById(id)
@@ -43,52 +61,96 @@ public class DoctorService {
         return toDTO(doctor);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.DOCTOR_PAGES, allEntries = true)
     @Transactional
     public DoctorDTO create(DoctorDTO dto) {
-        Department department = dto.getDepartmentId() != null
-                ? departmentRepository.findById(dto.getDepartmentId())
-                .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + dto.getDepartmentId()))
-                : null;
-
         Doctor doctor = Doctor.builder()
                 .name(dto.getName())
                 .specialization(dto.getSpecialization())
                 .email(dto.getEmail())
                 .phone(dto.getPhone())
-                .department(department)
                 .build();
+        moveToDepartment(doctor, dto.getDepartmentId());
         doctor = doctorRepository.save(doctor);
+        resourceVersions.created(ResourceVersions.Resource.DOCTORS);
         return toDTO(doctor);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCTORS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DOCTOR_PAGES, allEntries = true)
+    })
     @Transactional
     public DoctorDTO update(Long id, DoctorDTO dto) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
-
-        if (dto.getDepartmentId() != null) {
-            Department department = departmentRepository.findById(dto.getDepartmentId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + dto.getDepartmentId()));
-            doctor.setDepartment(department);
-        }
-
+        moveToDepartment(doctor, dto.getDepartmentId());
         doctor.setName(dto.getName());
         doctor.setSpecialization(dto.getSpecialization());
         doctor.setEmail(dto.getEmail());
         doctor.setPhone(dto.getPhone());
         doctor = doctorRepository.save(doctor);
+        resourceVersions.changed(ResourceVersions.Resource.DOCTORS, id);
         return toDTO(doctor);
     }
 
+    /** As {@link #update}, but fields left null keep their stored values. */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCTORS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DOCTOR_PAGES, allEntries = true)
+    })
+    @Transactional
+    public DoctorDTO patch(Long id, DoctorDTO dto) {
+        Doctor doctor = doctorRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+        moveToDepartment(doctor, dto.getDepartmentId());
+        if (dto.getName() != null) {
+            doctor.setName(dto.getName());
+        }
+        if (dto.getSpecialization() != null) {
+            doctor.setSpecialization(dto.getSpecialization());
+        }
+        if (dto.getEmail() != null) {
+            doctor.setEmail(dto.getEmail());
+        }
+        if (dto.getPhone() != null) {
+            doctor.setPhone(dto.getPhone());
+        }
+        doctor = doctorRepository.save(doctor);
+        resourceVersions.changed(ResourceVersions.Resource.DOCTORS, id);
+        return toDTO(doctor);
+    }
+
+    /**
+     * Appointments go with one set-based statement, never loaded, so the cost in statements does not
+     * grow with the doctor's history. The doctor itself is removed as an entity, which evicts only its
+     * own second-level cache entry.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCTORS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DOCTOR_PAGES, allEntries = true)
+    })
     @Transactional
     public void delete(Long id) {
-        if (!doctorRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Doctor not found with id: " + id);
+        Doctor doctor = doctorRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+        scheduleIndex.release(appointmentRepository.findIdsByDoctorId(id));
+        rollups.removedForDoctor(id);
+        appointmentRepository.bulkDeleteByDoctorId(id);
+        doctorRepository.delete(doctor);
+        resourceVersions.changed(ResourceVersions.Resource.DOCTORS, id);
+    }
+
+    // Departments are second-level cached, so the check is usually free; the response needs the name anyway.
+    private void moveToDepartment(Doctor doctor, Long departmentId) {
+        if (departmentId != null
+                && (doctor.getDepartment() == null || !departmentId.equals(doctor.getDepartment().getId()))) {
+            doctor.setDepartment(departmentRepository.findById(departmentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + departmentId)));
         }
-        doctorRepository.deleteById(id);
     }
 
-    private DoctorDTO toDTO(Doctor doctor) {
+    DoctorDTO toDTO(Doctor doctor) {
         return DoctorDTO.builder()
                 .id(doctor.getId())
                 .name(doctor.getName())
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque cursors for keyset pagination. A page is fetched as {@code WHERE key > cursor ORDER BY key LIMIT n + 1};
+ * the extra row only tells us whether a next page exists, so every page costs an index range scan of n + 1 rows
+ * no matter how deep the client has paged.
+ */
+final class KeysetCursor {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetCursor() {
+    }
+
+    static int clampLimit(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    static String encodeId(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    /** Returns the id after which the page starts, or {@code 0} for the first page. */
+    static long decodeId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    static String encodeDateId(LocalDateTime date, Long id) {
+        return encode(date + "|" + id);
+    }
+
+    /** Returns the (date, id) position after which the page starts, or {@code null} for the first page. */
+    static DateId decodeDateId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String value = decode(cursor);
+        int separator = value.lastIndexOf('|');
+        if (separator < 0) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new DateId(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /** Trims a {@code limit + 1} result to {@code limit} rows and derives the next cursor from the last row kept. */
+    static <T> CursorPageDTO<T> page(List<T> rows, int limit, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = new ArrayList<>(hasMore ? rows.subList(0, limit) : rows);
+        return CursorPageDTO.<T>builder()
+                .items(items)
+                .nextCursor(hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null)
+                .build();
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    record DateId(LocalDateTime date, Long id) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+
+/** Helpers for native statements issued through the entity manager. */
+final class NativeQueries {
+
+    private NativeQueries() {
+    }
+
+    /**
+     * Declares the entity whose table a native statement writes. Without it Hibernate cannot tell what
+     * the statement touches and evicts every second-level cache region when it executes.
+     */
+    static Query synchronizedWith(Query query, Class<?> entity) {
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(entity);
+        return query;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.service;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/** Helpers for PATCH requests, where a field left null keeps its stored value. */
+final class Patches {
+
+    private Patches() {
+    }
+
+    /**
+     * Writes {@code requested} through {@code setter} unless it is null or equal to {@code stored}, and
+     * tells whether it did, so a request that changes nothing need not invalidate caches or ETags.
+     */
+    static <T> boolean apply(T requested, T stored, Consumer<T> setter) {
+        if (requested == null || Objects.equals(requested, stored)) {
+            return false;
+        }
+        setter.accept(requested);
+        return true;
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.demo.service;
+
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import com.example.demo.dto.ImportReportDTO;
+import com.example.demo.dto.PatientDTO;
+import com.example.demo.entity.Patient;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.repository.PatientRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk patient import from a streamed CSV or NDJSON body. Rows are parsed and validated one at a time
+ * and written in chunks, one transaction per chunk, so the whole file is never held in memory and a
+ * bad chunk only costs that chunk. If a chunk fails in the database it is replayed row by row so the
+ * report names the offending lines. A quoted CSV field may span lines, up to
+ * {@value #MAX_CSV_RECORD_LINES} of them; errors are reported against the line the record starts on.
+ */
+@Service
+public class PatientImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final int MAX_CSV_RECORD_LINES = 50;
+
+    private static final List<String> CSV_COLUMNS =
+            List.of("name", "email", "phone", "dateOfBirth", "address", "bloodGroup");
+
+    private final PatientRepository patientRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate chunkTx;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PatientImportService(PatientRepository patientRepository,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                ResourceVersions resourceVersions,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${patients.import.chunk-size:1000}") int chunkSize) {
+        this.patientRepository = patientRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.resourceVersions = resourceVersions;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReportDTO importPatients(InputStream body, Format format) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        ImportReportDTO report = new ImportReportDTO();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Integer> header = format == Format.CSV ? readCsvHeader(reader) : null;
+        long lineNumber = format == Format.CSV ? 1 : 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            long recordLine = lineNumber;
+            if (format == Format.CSV && hasOddQuotes(line)) {
+                // A quoted field holds a line break: read on to its closing quote, but not without bound.
+                // A record still open after that is rejected by splitCsv as unterminated.
+                StringBuilder record = new StringBuilder(line);
+                boolean open = true;
+                String next;
+                while (open && lineNumber - recordLine + 1 < MAX_CSV_RECORD_LINES && (next = reader.readLine()) != null) {
+                    lineNumber++;
+                    record.append('\n').append(next);
+                    open = hasOddQuotes(next) != open;
+                }
+                line = record.toString();
+            }
+            report.setProcessed(report.getProcessed() + 1);
+            try {
+                PatientDTO dto = format == Format.CSV ? parseCsv(line, header) : objectMapper.readValue(line, PatientDTO.class);
+                Patient patient = toEntity(dto);
+                Set<ConstraintViolation<Patient>> violations = validator.validate(patient);
+                if (!violations.isEmpty()) {
+                    fail(report, recordLine, violations.stream()
+                            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+                chunk.add(new PendingRow(recordLine, patient));
+            } catch (JacksonException | DateTimeParseException | IllegalArgumentException e) {
+                fail(report, recordLine, "Unparseable row: " + e.getMessage());
+                continue;
+            }
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - startedAt);
+        return report;
+    }
+
+    private void writeChunk(List<PendingRow> chunk, ImportReportDTO report) {
+        try {
+            chunkTx.executeWithoutResult(status -> persist(chunk));
+            report.setImported(report.getImported() + chunk.size());
+        } catch (RuntimeException chunkFailure) {
+            entityManager.clear();
+            for (PendingRow row : chunk) {
+                row.patient.setId(null);
+                try {
+                    chunkTx.executeWithoutResult(status -> persist(List.of(row)));
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException rowFailure) {
+                    entityManager.clear();
+                    fail(report, row.line, rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private void persist(List<PendingRow> rows) {
+        // Bulk-loaded patients would only churn the second-level cache.
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        for (PendingRow row : rows) {
+            patientRepository.save(row.patient);
+            eventPublisher.publishEvent(PatientSearchIndex.PatientChanged.of(row.patient));
+        }
+        resourceVersions.created(ResourceVersions.Resource.PATIENTS);
+        // Flush the JDBC batch and drop the managed copies; with open-in-view the persistence
+        // context outlives the chunk transaction and would otherwise grow with the file.
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new BadRequestException("CSV import requires a header row");
+        }
+        Map<String, Integer> header = new HashMap<>();
+        List<String> columns = splitCsv(headerLine);
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).trim();
+            for (String known : CSV_COLUMNS) {
+                if (known.equalsIgnoreCase(column)) {
+                    header.put(known, i);
+                }
+            }
+        }
+        if (!header.containsKey("name")) {
+            throw new BadRequestException("CSV header must contain a 'name' column");
+        }
+        return header;
+    }
+
+    private PatientDTO parseCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        String dateOfBirth = column(values, header, "dateOfBirth");
+        return PatientDTO.builder()
+                .name(column(values, header, "name"))
+                .email(column(values, header, "email"))
+                .phone(column(values, header, "phone"))
+                .dateOfBirth(dateOfBirth != null ? LocalDate.parse(dateOfBirth) : null)
+                .address(column(values, header, "address"))
+                .bloodGroup(column(values, header, "bloodGroup"))
+                .build();
+    }
+
+    private static boolean hasOddQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 == 1;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /** Splits one CSV record, honouring double-quoted fields and doubled quotes inside them. */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static Patient toEntity(PatientDTO dto) {
+        return Patient.builder()
+                .name(dto.getName())
+                .email(dto.getEmail())
+                .phone(dto.getPhone())
+                .dateOfBirth(dto.getDateOfBirth())
+                .address(dto.getAddress())
+                .bloodGroup(dto.getBloodGroup())
+                .build();
+    }
+
+    private static void fail(ImportReportDTO report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ImportReportDTO.RowError(line, message));
+        }
+    }
+
+    private static String rootMessage(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private static final class PendingRow {
+        private final long line;
+        private final Patient patient;
+
+        private PendingRow(long line, Patient patient) {
+            this.line = line;
+            this.patient = patient;
+        }
+    }
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null) {
+                String type = contentType.toLowerCase(Locale.ROOT);
+                if (type.startsWith("text/csv")) {
+                    return CSV;
+                }
+                if (type.startsWith("application/x-ndjson")) {
+                    return NDJSON;
+                }
+            }
+            throw new BadRequestException("Import body must be text/csv or application/x-ndjson");
+        }
+    }
+}
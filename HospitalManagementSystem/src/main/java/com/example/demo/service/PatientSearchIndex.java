@@ -0,0 +1,436 @@
+package com.example.demo.service;
+
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.PatientRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over patient name, email and phone for typeahead search.
+ * <p>
+ * Every indexed token is padded as {@code "  token "} and split into trigrams, so a query word of three
+ * or more characters matches anywhere inside a token and a one- or two-character word matches token
+ * prefixes. Each trigram maps to an append-only, ascending list of document ordinals; a query
+ * intersects the lists of its trigrams, checks the survivors against the stored fields and ranks them.
+ * An update or delete tombstones the old ordinal (an update appends a fresh one), and the postings
+ * are rebuilt once tombstones pass a quarter of all ordinals.
+ * <p>
+ * Changes arrive as {@link PatientChanged}/{@link PatientRemoved} events applied after the writing
+ * transaction commits. Until the startup warm-up finishes {@link #isReady()} is false and callers fall
+ * back to the database.
+ */
+@Slf4j
+@Component
+public class PatientSearchIndex {
+
+    /** Published whenever a patient's row is written; applied to the index after commit. */
+    public record PatientChanged(Long id, String name, String email, String phone) {
+
+        public static PatientChanged of(Patient patient) {
+            return new PatientChanged(patient.getId(), patient.getName(), patient.getEmail(), patient.getPhone());
+        }
+    }
+
+    /** Published when a patient is deleted; applied to the index after commit. */
+    public record PatientRemoved(Long id) {
+    }
+
+    /** Ranked patient ids for one page, and whether further matches exist. */
+    public record Hits(List<Long> ids, boolean more) {
+    }
+
+    /** Upper bound on verified matches considered per query; ranking is exact below it. */
+    static final int MAX_CANDIDATES = 5_000;
+
+    private static final double COMPACT_TOMBSTONE_RATIO = 0.25;
+    private static final int COMPACT_MIN_ORDINALS = 1024;
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock.
+    private Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private Doc[] docs = new Doc[1024];
+    private int size;
+    private final Set<Long> removedDuringWarmUp = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public PatientSearchIndex(PatientRepository patientRepository, PlatformTransactionManager transactionManager) {
+        this.patientRepository = patientRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.currentTimeMillis();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<PatientRepository.SearchView> rows = patientRepository.streamSearchFields()) {
+                rows.forEach(row -> {
+                    lock.writeLock().lock();
+                    try {
+                        // Rows changed or removed by events during the warm-up are already up to date.
+                        if (!ordinals.containsKey(row.getId()) && !removedDuringWarmUp.contains(row.getId())) {
+                            add(row.getId(), Doc.of(row.getId(), row.getName(), row.getEmail(), row.getPhone()));
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                });
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            removedDuringWarmUp.clear();
+            ready = true;
+            log.info("Patient search index warmed with {} patients and {} trigrams in {} ms",
+                    ordinals.size(), postings.size(), System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChanged(PatientChanged event) {
+        Doc doc = Doc.of(event.id(), event.name(), event.email(), event.phone());
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(event.id());
+            if (ordinal != null && doc.equals(docs[ordinal])) {
+                return;
+            }
+            if (ordinal != null) {
+                docs[ordinal] = null;
+            }
+            add(event.id(), doc);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRemoved(PatientRemoved event) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(event.id());
+            if (ordinal != null) {
+                docs[ordinal] = null;
+            }
+            if (!ready) {
+                removedDuringWarmUp.add(event.id());
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Patients matching every word of {@code query}, best first: full-name prefix, then every word
+     * prefixing a name word, then a name substring, then email/phone only; ties go to the patient indexed
+     * first. Because postings are walked in that same order, the walk stops as soon as the requested
+     * page is filled with best-rank matches.
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> words = queryWords(query);
+        if (words.isEmpty()) {
+            return new Hits(List.of(), false);
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        words.forEach(word -> queryGrams(word, grams));
+        String phrase = String.join(" ", words);
+        int wanted = Math.min(offset + limit + 1, MAX_CANDIDATES);
+        Comparator<Match> order = Comparator.comparingInt(Match::rank).thenComparingInt(Match::ordinal);
+        PriorityQueue<Match> best = new PriorityQueue<>(wanted, order.reversed());
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[grams.size()];
+            int i = 0;
+            for (String gram : grams) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return new Hits(List.of(), false);
+                }
+                lists[i++] = list;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            int[] positions = new int[lists.length];
+            int verified = 0;
+            Postings smallest = lists[0];
+            for (int p = 0; p < smallest.size && verified < MAX_CANDIDATES; p++) {
+                if (best.size() == wanted && best.peek().rank == 0) {
+                    break;
+                }
+                int ordinal = smallest.ordinals[p];
+                if (docs[ordinal] == null || !containsInAll(lists, positions, ordinal)) {
+                    continue;
+                }
+                Doc doc = docs[ordinal];
+                if (!doc.matches(words)) {
+                    continue;
+                }
+                verified++;
+                Match match = new Match(doc.id, doc.rank(words, phrase), ordinal);
+                if (best.size() < wanted) {
+                    best.add(match);
+                } else if (order.compare(match, best.peek()) < 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(order);
+        List<Long> ids = new ArrayList<>(limit);
+        for (int r = offset; r < ranked.size() && ids.size() < limit; r++) {
+            ids.add(ranked.get(r).id);
+        }
+        return new Hits(ids, ranked.size() > offset + limit);
+    }
+
+    private static boolean containsInAll(Postings[] lists, int[] positions, int ordinal) {
+        for (int l = 1; l < lists.length; l++) {
+            Postings list = lists[l];
+            int found = Arrays.binarySearch(list.ordinals, positions[l], list.size, ordinal);
+            if (found < 0) {
+                positions[l] = -found - 1;
+                return false;
+            }
+            positions[l] = found + 1;
+        }
+        return true;
+    }
+
+    /** Appends a document under a fresh ordinal; caller holds the write lock. */
+    private void add(Long id, Doc doc) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+        }
+        int ordinal = size++;
+        docs[ordinal] = doc;
+        ordinals.put(id, ordinal);
+        Set<String> grams = new HashSet<>();
+        doc.grams(grams);
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+        }
+    }
+
+    /** Rebuilds ordinals and postings without tombstones; caller holds the write lock. */
+    private void compactIfNeeded() {
+        int tombstones = size - ordinals.size();
+        if (size < COMPACT_MIN_ORDINALS || tombstones < size * COMPACT_TOMBSTONE_RATIO) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Doc[] live = new Doc[ordinals.size()];
+        int n = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (docs[ordinal] != null) {
+                live[n++] = docs[ordinal];
+            }
+        }
+        docs = new Doc[Math.max(1024, n * 2)];
+        size = 0;
+        ordinals.clear();
+        postings = new HashMap<>();
+        for (Doc doc : live) {
+            add(doc.id, doc);
+        }
+        log.info("Compacted patient search index: dropped {} tombstones in {} ms",
+                tombstones, System.currentTimeMillis() - started);
+    }
+
+    static List<String> queryWords(String query) {
+        List<String> words = new ArrayList<>();
+        if (query == null) {
+            return words;
+        }
+        for (String raw : query.trim().split("\\s+")) {
+            String word = isPhoneLike(raw) ? digits(raw) : normalize(raw);
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static void queryGrams(String word, Set<String> grams) {
+        if (word.length() >= 3) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                grams.add(word.substring(i, i + 3));
+            }
+        } else if (word.length() == 2) {
+            grams.add(" " + word);
+        } else {
+            grams.add("  " + word);
+        }
+    }
+
+    /** Lower-cases and keeps letters, digits and the characters that matter in an email address. */
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (char c : value.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c) || c == '@' || c == '.' || c == '_' || c == '-' || c == '+') {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isPhoneLike(String value) {
+        boolean digit = false;
+        for (char c : value.toCharArray()) {
+            if (Character.isLetter(c) || c == '@') {
+                return false;
+            }
+            digit |= Character.isDigit(c);
+        }
+        return digit;
+    }
+
+    private static String digits(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (Character.isDigit(c)) {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private record Match(long id, int rank, int ordinal) {
+    }
+
+    /** Normalized searchable fields of one patient; {@code nameWords} are the space-separated name tokens. */
+    private record Doc(long id, String name, String[] nameWords, String email, String phone) {
+
+        static Doc of(Long id, String name, String email, String phone) {
+            List<String> words = new ArrayList<>();
+            if (name != null) {
+                for (String raw : name.trim().split("\\s+")) {
+                    String word = normalize(raw);
+                    if (!word.isEmpty()) {
+                        words.add(word);
+                    }
+                }
+            }
+            return new Doc(id, String.join(" ", words), words.toArray(new String[0]), normalize(email), digits(phone));
+        }
+
+        void grams(Set<String> grams) {
+            for (String word : nameWords) {
+                tokenGrams(word, grams);
+            }
+            tokenGrams(email, grams);
+            tokenGrams(phone, grams);
+        }
+
+        private static void tokenGrams(String token, Set<String> grams) {
+            if (token.isEmpty()) {
+                return;
+            }
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+
+        boolean matches(List<String> words) {
+            for (String word : words) {
+                boolean found = word.length() >= 3
+                        ? name.contains(word) || email.contains(word) || phone.contains(word)
+                        : prefixesNameWord(word) || email.startsWith(word) || phone.startsWith(word);
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int rank(List<String> words, String phrase) {
+            if (name.startsWith(phrase)) {
+                return 0;
+            }
+            boolean allPrefixes = true;
+            boolean inName = true;
+            for (String word : words) {
+                allPrefixes &= prefixesNameWord(word);
+                inName &= name.contains(word);
+            }
+            return allPrefixes ? 1 : inName ? 2 : 3;
+        }
+
+        private boolean prefixesNameWord(String word) {
+            for (String nameWord : nameWords) {
+                if (nameWord.startsWith(word)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Doc other && id == other.id && name.equals(other.name)
+                    && email.equals(other.email) && phone.equals(other.phone);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+
+    /** Ascending ordinals; ordinals are handed out in increasing order, so adding is an append. */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
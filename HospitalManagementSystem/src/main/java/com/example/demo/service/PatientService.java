@@ -2,15 +2,22 @@ package com.example.demo.service;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.dto.CursorPageDTO;
 import com.example.demo.dto.PatientDTO;
 import com.example.demo.entity.Patient;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.AppointmentRepository;
 import com.example.demo.repository.PatientRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,12 +25,21 @@ import java.util.stream.Collectors;
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorScheduleIndex scheduleIndex;
+    private final UtilizationRollups rollups;
+    private final AppointmentArchive archive;
+    private final PatientSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResourceVersions resourceVersions;
 
     @Transactional(readOnly = true)
-    public List<PatientDTO> findAll() {
-        return patientRepository.findAll().stream()
+    public CursorPageDTO<PatientDTO> findAll(String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        List<PatientDTO> rows = patientRepository.findPageAfter(KeysetCursor.decodeId(after), Limit.of(size + 1)).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
+        return KeysetCursor.page(rows, size, p -> KeysetCursor.encodeId(p.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -33,6 +49,35 @@ public class PatientService {
         return toDTO(patient);
     }
 
+    /**
+     * Ranked typeahead search over name, email and phone, served by {@link PatientSearchIndex}. The cursor
+     * is the offset into the ranking. While the index is still warming up this falls back to a single
+     * page of name matches from the database.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PatientDTO> search(String query, String after, int limit) {
+        int size = KeysetCursor.clampLimit(limit);
+        if (query == null || query.isBlank()) {
+            return new CursorPageDTO<>(List.of(), null);
+        }
+        if (!searchIndex.isReady()) {
+            List<PatientDTO> rows = patientRepository.findByNameContainingIgnoreCase(query.trim(), Limit.of(size)).stream()
+                    .map(this::toDTO)
+                    .collect(Collectors.toList());
+            return new CursorPageDTO<>(rows, null);
+        }
+        int offset = (int) Math.min(KeysetCursor.decodeId(after), PatientSearchIndex.MAX_CANDIDATES);
+        PatientSearchIndex.Hits hits = searchIndex.search(query, offset, size);
+        Map<Long, Patient> patients = patientRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        List<PatientDTO> items = hits.ids().stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, hits.more() ? KeysetCursor.encodeId((long) offset + size) : null);
+    }
+
     @Transactional
     public PatientDTO create(PatientDTO dto) {
         Patient patient = Patient.builder()
@@ -44,6 +89,8 @@ public class PatientService {
                 .bloodGroup(dto.getBloodGroup())
                 .build();
         patient = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientSearchIndex.PatientChanged.of(patient));
+        resourceVersions.created(ResourceVersions.Resource.PATIENTS);
         return toDTO(patient);
     }
 
@@ -58,18 +105,47 @@ public class PatientService {
         patient.setAddress(dto.getAddress());
         patient.setBloodGroup(dto.getBloodGroup());
         patient = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientSearchIndex.PatientChanged.of(patient));
+        resourceVersions.changed(ResourceVersions.Resource.PATIENTS, id);
         return toDTO(patient);
     }
 
+    /**
+     * Fields left null keep their stored values; the UPDATE only writes the columns that changed, and a
+     * request that changes nothing leaves the search index and the patient's ETag alone.
+     */
     @Transactional
-    public void delete(Long id) {
-        if (!patientRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Patient not found with id: " + id);
+    public PatientDTO patch(Long id, PatientDTO dto) {
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
+        boolean changed = Patches.apply(dto.getName(), patient.getName(), patient::setName)
+                | Patches.apply(dto.getEmail(), patient.getEmail(), patient::setEmail)
+                | Patches.apply(dto.getPhone(), patient.getPhone(), patient::setPhone)
+                | Patches.apply(dto.getDateOfBirth(), patient.getDateOfBirth(), patient::setDateOfBirth)
+                | Patches.apply(dto.getAddress(), patient.getAddress(), patient::setAddress)
+                | Patches.apply(dto.getBloodGroup(), patient.getBloodGroup(), patient::setBloodGroup);
+        if (changed) {
+            eventPublisher.publishEvent(PatientSearchIndex.PatientChanged.of(patient));
+            resourceVersions.changed(ResourceVersions.Resource.PATIENTS, id);
         }
-        patientRepository.deleteById(id);
+        return toDTO(patient);
+    }
+
+    /** Appointments, hot and archived, go with set-based statements; only the patient is loaded. */
+    @Transactional
+    public void delete(Long id) {
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
+        scheduleIndex.release(appointmentRepository.findIdsByPatientId(id));
+        rollups.removedForPatient(id);
+        archive.removePatient(id);
+        appointmentRepository.bulkDeleteByPatientId(id);
+        patientRepository.delete(patient);
+        eventPublisher.publishEvent(new PatientSearchIndex.PatientRemoved(id));
+        resourceVersions.changed(ResourceVersions.Resource.PATIENTS, id);
     }
 
-    private PatientDTO toDTO(Patient patient) {
+    PatientDTO toDTO(Patient patient) {
         return PatientDTO.builder()
                 .id(patient.getId())
                 .name(patient.getName())
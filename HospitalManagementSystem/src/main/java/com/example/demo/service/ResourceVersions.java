@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory change counters behind the ETags of the reference-data endpoints, so a conditional GET can
+ * be answered with 304 before the database or the serializer is touched.
+ *
+ * <p>Each collection has a counter that moves on every committed write. A collection tag is that
+ * counter; an item tag is the collection's generation plus the stamp of the item's last update or
+ * delete. Items created since startup need no stamp because no tag for them can have been handed out
+ * before they existed. Writes that change every item at once (a department rename shows up in all of
+ * its doctors) bump the generation instead of stamping items one by one. The startup epoch is part of
+ * every tag, so tags from a previous run never match.
+ *
+ * <p>Counters only move after commit and tags are computed before the read, so a client can at worst
+ * hold a representation newer than its tag, which costs one extra 200 and never a stale 304.
+ */
+@Component
+public class ResourceVersions {
+
+    public enum Resource {
+        PATIENTS("p"), DOCTORS("doc"), DEPARTMENTS("dep");
+
+        private final String prefix;
+
+        Resource(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Resource, Versions> versions = new EnumMap<>(Resource.class);
+
+    public ResourceVersions() {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new Versions());
+        }
+    }
+
+    /** Strong ETag for any listing of the collection. */
+    public String collectionTag(Resource resource) {
+        return tag(resource, Long.toString(versions.get(resource).counter.get()));
+    }
+
+    /** Strong ETag for a single item of the collection. */
+    public String itemTag(Resource resource, Long id) {
+        Versions v = versions.get(resource);
+        return tag(resource, v.generation.get() + "." + v.stamps.getOrDefault(id, 0L));
+    }
+
+    /** Records a new item; listings change, existing item tags do not. */
+    public void created(Resource resource) {
+        Versions v = versions.get(resource);
+        TransactionCallbacks.afterCommit(v.counter::incrementAndGet);
+    }
+
+    /** Records an update or delete of one item. */
+    public void changed(Resource resource, Long id) {
+        Versions v = versions.get(resource);
+        TransactionCallbacks.afterCommit(() -> v.stamps.put(id, v.counter.incrementAndGet()));
+    }
+
+    /** Records a change that may touch every item of the collection. */
+    public void changedAll(Resource resource) {
+        Versions v = versions.get(resource);
+        TransactionCallbacks.afterCommit(() -> {
+            v.counter.incrementAndGet();
+            v.generation.incrementAndGet();
+        });
+    }
+
+    private String tag(Resource resource, String version) {
+        return "\"" + resource.prefix + "-" + epoch + "-" + version + "\"";
+    }
+
+    private static final class Versions {
+        private final AtomicLong counter = new AtomicLong();
+        private final AtomicLong generation = new AtomicLong();
+        private final Map<Long, Long> stamps = new ConcurrentHashMap<>();
+    }
+}
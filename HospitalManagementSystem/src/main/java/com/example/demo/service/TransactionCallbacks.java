@@ -0,0 +1,34 @@
+package com.example.demo.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Defers in-memory bookkeeping until the surrounding transaction has committed or rolled back. */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /** Runs the callbacks when the current transaction commits or rolls back, or immediately without one. */
+    static void onCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit != null) {
+                onCommit.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                Runnable callback = status == STATUS_COMMITTED ? onCommit : onRollback;
+                if (callback != null) {
+                    callback.run();
+                }
+            }
+        });
+    }
+
+    static void afterCommit(Runnable onCommit) {
+        onCompletion(onCommit, null);
+    }
+}
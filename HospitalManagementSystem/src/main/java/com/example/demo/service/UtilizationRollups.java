@@ -0,0 +1,354 @@
+package com.example.demo.service;
+
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.RollupRebuildDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.AppointmentRollup;
+import com.example.demo.entity.AppointmentRollup.Scope;
+import com.example.demo.entity.ArchivedAppointment;
+import com.example.demo.exception.ConflictException;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@link AppointmentRollup} counters in step with the appointments table. Every appointment write
+ * records what it counted before and after; the differences are summed per transaction and written just
+ * before commit as one multi-row upsert, in key order so that two transactions touching the same
+ * counters lock them in the same order. Set-based deletes subtract their rows with a single
+ * {@code insert ... select} before the rows go. Rollups cover archived appointments too: archiving
+ * leaves them alone, and removing archived rows subtracts them like any other delete.
+ *
+ * <p>{@link #rebuild()} recomputes everything from the appointments and archive tables, one date partition per
+ * transaction, {@code rollups.rebuild-threads} partitions at a time. It runs by itself at startup when
+ * the rollups are empty but appointments are not, e.g. after the first deployment or a synthetic load.
+ *
+ * <p>The upserts use MySQL's {@code on duplicate key update}, which H2 understands in MySQL mode.
+ */
+@Slf4j
+@Component
+public class UtilizationRollups {
+
+    private static final String UPSERT = "insert into " + AppointmentRollup.TABLE
+            + " (scope, owner_id, rollup_date, status, appointment_count) ";
+    private static final String ADD_ON_DUPLICATE =
+            " on duplicate key update appointment_count = appointment_count + values(appointment_count)";
+    private static final String STATUS = "coalesce(a.status, 'SCHEDULED')";
+    private static final String DAY = "cast(a.appointment_date as date)";
+    private static final String APPOINTMENTS = "appointments";
+
+    private final TransactionTemplate partitionTx;
+    private final int rebuildThreads;
+    private final int partitionDays;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UtilizationRollups(PlatformTransactionManager transactionManager,
+                              @Value("${rollups.rebuild-threads:4}") int rebuildThreads,
+                              @Value("${rollups.rebuild-partition-days:31}") int partitionDays) {
+        this.partitionTx = new TransactionTemplate(transactionManager);
+        this.rebuildThreads = Math.max(1, rebuildThreads);
+        this.partitionDays = Math.max(1, partitionDays);
+    }
+
+    /** What an appointment contributes to the rollups: one count per owner, day and status. */
+    record Counted(Long doctorId, Long departmentId, LocalDate day, String status) {
+
+        static Counted of(Appointment appointment) {
+            return new Counted(
+                    appointment.getDoctor().getId(),
+                    appointment.getDepartment() != null ? appointment.getDepartment().getId() : null,
+                    appointment.getAppointmentDate().toLocalDate(),
+                    appointment.getStatus() != null ? appointment.getStatus() : "SCHEDULED");
+        }
+    }
+
+    void added(Counted after) {
+        changed(null, after);
+    }
+
+    /** Moves one count from {@code before} to {@code after}; either may be null for an insert or delete. */
+    void changed(Counted before, Counted after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        Map<Key, Long> deltas = pending();
+        if (before != null) {
+            add(deltas, before, -1);
+        }
+        if (after != null) {
+            add(deltas, after, 1);
+        }
+    }
+
+    /*
+     * Set-based removals: each subtracts the matching appointments from the rollups in one statement.
+     * Call them before the rows are deleted.
+     */
+
+    void removedAppointment(Long appointmentId) {
+        removedWhere(APPOINTMENTS, "a.id = ?1", appointmentId);
+    }
+
+    void removedForPatient(Long patientId) {
+        removedWhere(APPOINTMENTS, "a.patient_id = ?1", patientId);
+    }
+
+    void removedForDoctor(Long doctorId) {
+        removedWhere(APPOINTMENTS, "a.doctor_id = ?1", doctorId);
+    }
+
+    /** Appointments booked in the department or with any of its doctors. */
+    void removedForDepartment(Long departmentId) {
+        removedWhere(APPOINTMENTS,
+                "a.department_id = ?1 or a.doctor_id in (select d.id from doctors d where d.department_id = ?2)",
+                departmentId, departmentId);
+    }
+
+    void removedArchivedForPatient(Long patientId) {
+        removedWhere(ArchivedAppointment.TABLE, "a.patient_id = ?1", patientId);
+    }
+
+    /**
+     * Moves the counts of the given appointments from their current status to {@code status}, which must
+     * be a known status name. Call it just before a set-based status update of the same rows, with the
+     * rows locked; rows already in {@code status} are left alone.
+     */
+    void statusChanging(Collection<Long> appointmentIds, String status) {
+        String where = "a.id in (:ids) and " + STATUS + " <> :status";
+        Query query = entityManager.createNativeQuery(UPSERT + "select * from ("
+                + select(APPOINTMENTS, "-count(*)", STATUS, where) + " union all "
+                + select(APPOINTMENTS, "count(*)", ":status", where) + ") moved" + ADD_ON_DUPLICATE);
+        NativeQueries.synchronizedWith(query, AppointmentRollup.class)
+                .setParameter("ids", appointmentIds)
+                .setParameter("status", status)
+                .executeUpdate();
+    }
+
+    private void removedWhere(String table, String where, Object... parameters) {
+        String negated = select(table, "-count(*)", STATUS, where);
+        Query query = entityManager.createNativeQuery(UPSERT + "select * from (" + negated + ") removed" + ADD_ON_DUPLICATE);
+        for (int i = 0; i < parameters.length; i++) {
+            // Both halves of the union take the same parameters.
+            query.setParameter(i + 1, parameters[i]);
+            query.setParameter(parameters.length + i + 1, parameters[i]);
+        }
+        NativeQueries.synchronizedWith(query, AppointmentRollup.class).executeUpdate();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        boolean empty = partitionTx.execute(status ->
+                entityManager.createNativeQuery("select 1 from " + AppointmentRollup.TABLE).setMaxResults(1)
+                        .getResultList().isEmpty()
+                        && !entityManager.createNativeQuery("select 1 from " + APPOINTMENTS).setMaxResults(1)
+                        .getResultList().isEmpty());
+        if (empty) {
+            RollupRebuildDTO report = rebuild();
+            log.info("Utilization rollups built: {} rows from {} partitions in {} ms",
+                    report.getRows(), report.getPartitions(), report.getElapsedMillis());
+        }
+    }
+
+    /**
+     * Recomputes all rollups from the appointments and archive tables. Each date partition is cleared and
+     * refilled with an {@code insert ... select ... group by} per table in its own transaction, so readers see a partition
+     * either before or after, never half done. On MySQL the {@code insert ... select} locks the rows it
+     * reads, so an appointment write into a partition under rebuild waits for it.
+     */
+    public RollupRebuildDTO rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ConflictException("A rollup rebuild is already running");
+        }
+        long startedAt = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            Object[] bounds = partitionTx.execute(status -> (Object[]) entityManager.createNativeQuery(
+                    "select min(d), max(d) from ("
+                            + "select cast(min(appointment_date) as date) as d from " + APPOINTMENTS + " union all "
+                            + "select cast(max(appointment_date) as date) from " + APPOINTMENTS + " union all "
+                            + "select cast(min(appointment_date) as date) from " + ArchivedAppointment.TABLE + " union all "
+                            + "select cast(max(appointment_date) as date) from " + ArchivedAppointment.TABLE + " union all "
+                            + "select min(rollup_date) from " + AppointmentRollup.TABLE + " union all "
+                            + "select max(rollup_date) from " + AppointmentRollup.TABLE + ") bounds")
+                    .getSingleResult());
+            if (bounds[0] == null) {
+                return RollupRebuildDTO.builder().elapsedMillis(System.currentTimeMillis() - startedAt).build();
+            }
+            LocalDate first = toLocalDate(bounds[0]);
+            LocalDate last = toLocalDate(bounds[1]);
+            List<Future<Integer>> partitions = new ArrayList<>();
+            for (LocalDate from = first; !from.isAfter(last); from = from.plusDays(partitionDays)) {
+                LocalDate start = from;
+                LocalDate end = from.plusDays(partitionDays);
+                partitions.add(pool.submit(() -> rebuildPartition(start, end)));
+            }
+            long rows = 0;
+            for (Future<Integer> partition : partitions) {
+                rows += partition.get();
+            }
+            return RollupRebuildDTO.builder()
+                    .partitions(partitions.size())
+                    .rows(rows)
+                    .elapsedMillis(System.currentTimeMillis() - startedAt)
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            rebuilding.set(false);
+        }
+    }
+
+    private int rebuildPartition(LocalDate from, LocalDate to) {
+        return partitionTx.execute(status -> {
+            Query clear = entityManager.createNativeQuery(
+                    "delete from " + AppointmentRollup.TABLE + " where rollup_date >= ?1 and rollup_date < ?2");
+            NativeQueries.synchronizedWith(clear, AppointmentRollup.class)
+                    .setParameter(1, from)
+                    .setParameter(2, to)
+                    .executeUpdate();
+            return countInto(APPOINTMENTS, from, to) + countInto(ArchivedAppointment.TABLE, from, to);
+        });
+    }
+
+    private int countInto(String table, LocalDate from, LocalDate to) {
+        Query insert = entityManager.createNativeQuery(UPSERT + "select * from ("
+                + select(table, "count(*)", STATUS, "a.appointment_date >= ?1 and a.appointment_date < ?2") + ") counted"
+                + ADD_ON_DUPLICATE);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        return NativeQueries.synchronizedWith(insert, AppointmentRollup.class)
+                .setParameter(1, start).setParameter(2, end)
+                .setParameter(3, start).setParameter(4, end)
+                .executeUpdate();
+    }
+
+    /**
+     * Per-owner, per-day, per-status {@code count} of the rows of {@code table} matching {@code where}, for
+     * both scopes, reported under the {@code status} expression. {@code where} uses named parameters or
+     * ordinal ones from ?1; the department half renumbers the latter.
+     */
+    private static String select(String table, String count, String status, String where) {
+        int parameters = (int) where.chars().filter(c -> c == '?').count();
+        String departmentWhere = where;
+        for (int i = parameters; i >= 1; i--) {
+            departmentWhere = departmentWhere.replace("?" + i, "?" + (parameters + i));
+        }
+        return "select 'DOCTOR' as scope, a.doctor_id as owner_id, " + DAY + " as rollup_date, " + status
+                + " as status, " + count + " as appointment_count from " + table + " a where " + where
+                + " group by a.doctor_id, " + DAY + ", " + STATUS
+                + " union all select 'DEPARTMENT', a.department_id, " + DAY + ", " + status + ", " + count
+                + " from " + table + " a where a.department_id is not null and (" + departmentWhere + ")"
+                + " group by a.department_id, " + DAY + ", " + STATUS;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof LocalDate date ? date : ((Date) value).toLocalDate();
+    }
+
+    /** The counter changes of the current transaction, written by its before-commit callback. */
+    @SuppressWarnings("unchecked")
+    private Map<Key, Long> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Rollup changes must be recorded inside a transaction");
+        }
+        Map<Key, Long> deltas = (Map<Key, Long>) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            Map<Key, Long> created = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UtilizationRollups.this);
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    private static void add(Map<Key, Long> deltas, Counted counted, long delta) {
+        deltas.merge(new Key(Scope.DOCTOR, counted.doctorId(), counted.day(), counted.status()), delta, Long::sum);
+        if (counted.departmentId() != null) {
+            deltas.merge(new Key(Scope.DEPARTMENT, counted.departmentId(), counted.day(), counted.status()),
+                    delta, Long::sum);
+        }
+    }
+
+    private void apply(Map<Key, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(UPSERT).append("values ");
+        int parameter = 0;
+        for (int i = 0; i < deltas.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append('(');
+            for (int column = 0; column < 5; column++) {
+                sql.append(column == 0 ? "" : ", ").append('?').append(++parameter);
+            }
+            sql.append(')');
+        }
+        Query query = entityManager.createNativeQuery(sql.append(ADD_ON_DUPLICATE).toString());
+        parameter = 0;
+        for (Map.Entry<Key, Long> entry : deltas.entrySet()) {
+            Key key = entry.getKey();
+            query.setParameter(++parameter, key.scope().name());
+            query.setParameter(++parameter, key.ownerId());
+            query.setParameter(++parameter, key.day());
+            query.setParameter(++parameter, key.status());
+            query.setParameter(++parameter, entry.getValue());
+        }
+        NativeQueries.synchronizedWith(query, AppointmentRollup.class).executeUpdate();
+        deltas.clear();
+    }
+
+    private record Key(Scope scope, Long ownerId, LocalDate day, String status) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::scope)
+                .thenComparing(Key::ownerId)
+                .thenComparing(Key::day)
+                .thenComparing(Key::status);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
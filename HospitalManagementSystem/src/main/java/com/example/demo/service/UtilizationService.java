@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.UtilizationDTO;
+import com.example.demo.entity.AppointmentRollup;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.repository.AppointmentRollupRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Appointment counts by status per day or week for a doctor or department, read from the
+ * {@link AppointmentRollup} counters only. Every period of the range is listed, empty ones with zeros;
+ * weeks are always whole, so a range starting or ending mid-week counts the Monday-to-Sunday weeks it
+ * touches.
+ */
+@Service
+@RequiredArgsConstructor
+public class UtilizationService {
+
+    static final int MAX_PERIODS = 366;
+
+    private final AppointmentRollupRepository rollupRepository;
+
+    @Transactional(readOnly = true)
+    public List<UtilizationDTO> forDoctor(Long doctorId, LocalDate from, LocalDate to, Granularity granularity) {
+        return load(AppointmentRollup.Scope.DOCTOR, doctorId, from, to, granularity);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UtilizationDTO> forDepartment(Long departmentId, LocalDate from, LocalDate to, Granularity granularity) {
+        return load(AppointmentRollup.Scope.DEPARTMENT, departmentId, from, to, granularity);
+    }
+
+    private List<UtilizationDTO> load(AppointmentRollup.Scope scope, Long ownerId, LocalDate from, LocalDate to,
+                                      Granularity granularity) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+        LocalDate first = granularity.periodStart(from);
+        LocalDate last = granularity.periodEnd(to);
+        if (granularity.unit.between(first, to) >= MAX_PERIODS) {
+            throw new BadRequestException("At most " + MAX_PERIODS + " periods per request");
+        }
+        Map<LocalDate, UtilizationDTO> periods = new LinkedHashMap<>();
+        for (LocalDate start = first; !start.isAfter(to); start = start.plus(1, granularity.unit)) {
+            periods.put(start, UtilizationDTO.builder().periodStart(start).build());
+        }
+        for (AppointmentRollupRepository.CountView row : rollupRepository.findCounts(scope, ownerId, first, last)) {
+            UtilizationDTO period = periods.get(granularity.periodStart(row.getRollupDate()));
+            long count = row.getAppointmentCount();
+            switch (row.getStatus()) {
+                case "SCHEDULED" -> period.setScheduled(period.getScheduled() + count);
+                case "COMPLETED" -> period.setCompleted(period.getCompleted() + count);
+                case "CANCELLED" -> period.setCancelled(period.getCancelled() + count);
+                case "NO_SHOW" -> period.setNoShow(period.getNoShow() + count);
+                default -> {
+                    // Other statuses only count towards the total.
+                }
+            }
+            period.setTotal(period.getTotal() + count);
+        }
+        return new ArrayList<>(periods.values());
+    }
+
+    /** Day, or Monday-to-Sunday week. */
+    public enum Granularity {
+        DAY(ChronoUnit.DAYS),
+        WEEK(ChronoUnit.WEEKS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        LocalDate periodStart(LocalDate date) {
+            return this == WEEK ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : date;
+        }
+
+        LocalDate periodEnd(LocalDate date) {
+            return this == WEEK ? date.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)) : date;
+        }
+
+        public static Granularity parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported granularity: " + value);
+            }
+        }
+    }
+}
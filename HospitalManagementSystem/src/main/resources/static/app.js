@@ -32,21 +32,38 @@ async function fetchAPI(endpoint, options = {}) {
     return data;
 }
 
+// List endpoints are keyset-paginated: { items, nextCursor }
+const PAGE_SIZE = 50;
+const pageCursors = {};
+
+function pageUrl(endpoint, cursor, limit = PAGE_SIZE) {
+    const sep = endpoint.includes('?') ? '&' : '?';
+    return `${endpoint}${sep}limit=${limit}${cursor ? '&after=' + encodeURIComponent(cursor) : ''}`;
+}
+
+async function fetchPage(key, endpoint, more) {
+    const page = await fetchAPI(pageUrl(endpoint, more ? pageCursors[key] : null));
+    pageCursors[key] = page.nextCursor;
+    document.getElementById(`${key}-more`).classList.toggle('hidden', !page.nextCursor);
+    return page.items;
+}
+
+function renderRows(tbodyId, rows, more, emptyRow) {
+    const tbody = document.getElementById(tbodyId);
+    if (more) tbody.insertAdjacentHTML('beforeend', rows);
+    else tbody.innerHTML = rows || emptyRow;
+}
+
 // Dashboard
 async function loadDashboard() {
     try {
-        const [patients, doctors, departments, appointments] = await Promise.all([
-            fetchAPI('/patients'),
-            fetchAPI('/doctors'),
-            fetchAPI('/departments'),
-            fetchAPI('/appointments')
-        ]);
-        document.getElementById('stat-patients').textContent = patients.length;
-        document.getElementById('stat-doctors').textContent = doctors.length;
-        document.getElementById('stat-departments').textContent = departments.length;
-        document.getElementById('stat-appointments').textContent = appointments.length;
-
-        const recent = appointments.slice(0, 5);
+        const summary = await fetchAPI('/dashboard/summary');
+        document.getElementById('stat-patients').textContent = summary.patientCount;
+        document.getElementById('stat-doctors').textContent = summary.doctorCount;
+        document.getElementById('stat-departments').textContent = summary.departmentCount;
+        document.getElementById('stat-appointments').textContent = summary.appointmentCount;
+
+        const recent = summary.recentAppointments;
         const html = recent.length
             ? recent.map(a => `
                 <div class="appointment-item">
@@ -62,11 +79,19 @@ async function loadDashboard() {
 }
 
 // Patients
-async function loadPatients() {
+let patientSearchTimer = null;
+
+function searchPatients() {
+    clearTimeout(patientSearchTimer);
+    patientSearchTimer = setTimeout(() => loadPatients(), 200);
+}
+
+async function loadPatients(more = false) {
     try {
-        const data = await fetchAPI('/patients');
-        const tbody = document.getElementById('patients-table');
-        tbody.innerHTML = data.length ? data.map(p => `
+        const query = document.getElementById('patient-search').value.trim();
+        const endpoint = query ? `/patients/search?q=${encodeURIComponent(query)}` : '/patients';
+        const data = await fetchPage('patients', endpoint, more);
+        renderRows('patients-table', data.map(p => `
             <tr>
                 <td>${p.id}</td>
                 <td>${escapeHtml(p.name)}</td>
@@ -79,7 +104,7 @@ async function loadPatients() {
                     <button class="btn btn-danger btn-sm" onclick="deletePatient(${p.id}, '${escapeHtml(p.name)}')">Delete</button>
                 </td>
             </tr>
-        `).join('') : '<tr><td colspan="7" class="empty-state">No patients</td></tr>';
+        `).join(''), more, '<tr><td colspan="7" class="empty-state">No patients</td></tr>');
     } catch (e) {
         document.getElementById('patients-table').innerHTML = `<tr><td colspan="7" class="empty-state">Error: ${e.message}</td></tr>`;
     }
@@ -159,11 +184,10 @@ async function deletePatient(id, name) {
 }
 
 // Doctors
-async function loadDoctors() {
+async function loadDoctors(more = false) {
     try {
-        const data = await fetchAPI('/doctors');
-        const tbody = document.getElementById('doctors-table');
-        tbody.innerHTML = data.length ? data.map(d => `
+        const data = await fetchPage('doctors', '/doctors', more);
+        renderRows('doctors-table', data.map(d => `
             <tr>
                 <td>${d.id}</td>
                 <td>${escapeHtml(d.name)}</td>
@@ -176,7 +200,7 @@ async function loadDoctors() {
                     <button class="btn btn-danger btn-sm" onclick="deleteDoctor(${d.id}, '${escapeHtml(d.name)}')">Delete</button>
                 </td>
             </tr>
-        `).join('') : '<tr><td colspan="7" class="empty-state">No doctors</td></tr>';
+        `).join(''), more, '<tr><td colspan="7" class="empty-state">No doctors</td></tr>');
     } catch (e) {
         document.getElementById('doctors-table').innerHTML = `<tr><td colspan="7" class="empty-state">Error: ${e.message}</td></tr>`;
     }
@@ -324,12 +348,11 @@ async function deleteDepartment(id, name) {
 }
 
 // Appointments
-async function loadAppointments() {
+async function loadAppointments(more = false) {
     try {
-        const data = await fetchAPI('/appointments');
-        const tbody = document.getElementById('appointments-table');
+        const data = await fetchPage('appointments', '/appointments', more);
         const formatDt = dt => new Date(dt).toLocaleString();
-        tbody.innerHTML = data.length ? data.map(a => `
+        renderRows('appointments-table', data.map(a => `
             <tr>
                 <td>${a.id}</td>
                 <td>${escapeHtml(a.patientName)}</td>
@@ -342,16 +365,58 @@ async function loadAppointments() {
                     <button class="btn btn-danger btn-sm" onclick="deleteAppointment(${a.id})">Delete</button>
                 </td>
             </tr>
-        `).join('') : '<tr><td colspan="7" class="empty-state">No appointments</td></tr>';
+        `).join(''), more, '<tr><td colspan="7" class="empty-state">No appointments</td></tr>');
     } catch (e) {
         document.getElementById('appointments-table').innerHTML = `<tr><td colspan="7" class="empty-state">Error: ${e.message}</td></tr>`;
     }
 }
 
+// Appointment pickers: patients by typeahead, doctors a page at a time per department
+const PICKER_SIZE = 20;
+let patientPickerTimer = null;
+let doctorPickerCursor = null;
+
+function patientLabel(id, name) {
+    return `${name} (#${id})`;
+}
+
+function pickPatient(input) {
+    const list = document.getElementById('patient-options');
+    const option = [...list.options].find(o => o.value === input.value);
+    input.form.patientId.value = option ? option.dataset.id : '';
+    clearTimeout(patientPickerTimer);
+    const query = input.value.trim();
+    if (option || !query) return;
+    patientPickerTimer = setTimeout(async () => {
+        try {
+            const page = await fetchAPI(pageUrl(`/patients/search?q=${encodeURIComponent(query)}`, null, 10));
+            list.innerHTML = page.items.map(p =>
+                `<option value="${escapeHtml(patientLabel(p.id, p.name))}" data-id="${p.id}"></option>`).join('');
+        } catch (e) {
+            list.innerHTML = '';
+        }
+    }, 200);
+}
+
+async function loadDoctorOptions(form, more = false, current = null) {
+    const departmentId = form.departmentId.value;
+    const endpoint = departmentId ? `/doctors?departmentId=${departmentId}` : '/doctors';
+    const page = await fetchAPI(pageUrl(endpoint, more ? doctorPickerCursor : null, PICKER_SIZE));
+    doctorPickerCursor = page.nextCursor;
+    const opts = page.items.map(d => `<option value="${d.id}">${escapeHtml(d.name)} (${escapeHtml(d.specialization)})</option>`).join('');
+    if (more) form.doctorId.insertAdjacentHTML('beforeend', opts);
+    else form.doctorId.innerHTML = opts;
+    if (current && !page.items.some(d => d.id === current.doctorId)) {
+        form.doctorId.insertAdjacentHTML('afterbegin', `<option value="${current.doctorId}">${escapeHtml(current.doctorName)}</option>`);
+    }
+    if (current) form.doctorId.value = current.doctorId;
+    document.getElementById('doctor-options-more').classList.toggle('hidden', !page.nextCursor);
+}
+
 async function openAppointmentModal(apt = null) {
-    const [patients, doctors] = await Promise.all([fetchAPI('/patients'), fetchAPI('/doctors')]);
-    const patientOpts = patients.map(p => `<option value="${p.id}" ${apt && apt.patientId === p.id ? 'selected' : ''}>${escapeHtml(p.name)}</option>`).join('');
-    const doctorOpts = doctors.map(d => `<option value="${d.id}" ${apt && apt.doctorId === d.id ? 'selected' : ''}>${escapeHtml(d.name)} (${escapeHtml(d.specialization)})</option>`).join('');
+    const departments = await fetchAPI('/departments');
+    const departmentOpts = departments.map(d => `<option value="${d.id}" ${apt && apt.departmentId === d.id ? 'selected' : ''}>${escapeHtml(d.name)}</option>`).join('');
+    const patientValue = apt ? escapeHtml(patientLabel(apt.patientId, apt.patientName)) : '';
     const statusOpts = ['SCHEDULED', 'COMPLETED', 'CANCELLED', 'NO_SHOW'].map(s => `<option value="${s}" ${apt && apt.status === s ? 'selected' : ''}>${s}</option>`).join('');
 
     let dt = '';
@@ -370,11 +435,22 @@ async function openAppointmentModal(apt = null) {
         <form id="appointment-form">
             <div class="form-group">
                 <label>Patient *</label>
-                <select name="patientId" required>${patientOpts}</select>
+                <input name="patientSearch" list="patient-options" autocomplete="off" required
+                       placeholder="Type to search patients" value="${patientValue}" oninput="pickPatient(this)">
+                <datalist id="patient-options">${apt ? `<option value="${patientValue}" data-id="${apt.patientId}"></option>` : ''}</datalist>
+                <input type="hidden" name="patientId" value="${apt ? apt.patientId : ''}">
+            </div>
+            <div class="form-group">
+                <label>Department</label>
+                <select name="departmentId" onchange="loadDoctorOptions(this.form)">
+                    <option value="">All departments</option>${departmentOpts}
+                </select>
             </div>
             <div class="form-group">
                 <label>Doctor *</label>
-                <select name="doctorId" required>${doctorOpts}</select>
+                <select name="doctorId" required></select>
+                <div class="load-more"><button type="button" id="doctor-options-more" class="btn btn-secondary btn-sm hidden"
+                        onclick="loadDoctorOptions(this.form, true)">More doctors</button></div>
             </div>
             <div class="form-group">
                 <label>Date & Time *</label>
@@ -395,15 +471,25 @@ async function openAppointmentModal(apt = null) {
         </form>
     `;
     document.getElementById('modal-overlay').classList.remove('hidden');
+    try {
+        await loadDoctorOptions(document.getElementById('appointment-form'), false, apt);
+    } catch (e) {
+        alert(e.message);
+    }
     document.getElementById('appointment-form').onsubmit = async (e) => {
         e.preventDefault();
         const form = e.target;
+        if (!form.patientId.value) {
+            alert('Pick a patient from the suggestions');
+            return;
+        }
         const body = {
             patientId: +form.patientId.value,
             doctorId: +form.doctorId.value,
             appointmentDate: form.appointmentDate.value,
             status: form.status.value,
-            notes: form.notes.value || null
+            notes: form.notes.value || null,
+            version: apt ? apt.version : null
         };
         try {
             if (isEdit) await fetchAPI(`/appointments/${apt.id}`, { method: 'PUT', body: JSON.stringify(body) });
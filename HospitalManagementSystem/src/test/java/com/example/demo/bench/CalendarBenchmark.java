@@ -0,0 +1,133 @@
+package com.example.demo.bench;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.HospitalManagementSystemApplication;
+import com.example.demo.config.SyntheticDataGenerator;
+import com.example.demo.service.AppointmentCalendarService;
+import com.example.demo.service.AppointmentCalendarService.Span;
+import com.example.demo.support.CapturingStatementInspector;
+
+/**
+ * Latency of the doctor and department calendars against a large appointments table, by default
+ * 10 million rows built by {@link SyntheticDataGenerator} into an H2 file under
+ * {@code target/calendar-benchmark/}. Seeding that takes a while; the file is kept, and later runs with
+ * the same size reuse it. Before timing, the plan of each calendar query must use its
+ * (owner, appointment_date, id) index, and every case's p99 must stay under {@code bench.calendar.max-p99-ms}.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=CalendarBenchmark}; tune with
+ * {@code -Dbench.calendar.appointments}, {@code -Dbench.calendar.iterations},
+ * {@code -Dbench.calendar.max-p99-ms}, or {@code -Dbench.calendar.url} (with {@code .username} and
+ * {@code .password}) to measure a MySQL database instead.
+ */
+@Tag("benchmark")
+class CalendarBenchmark {
+
+	private final int appointments = Integer.getInteger("bench.calendar.appointments", 10_000_000);
+	private final int iterations = Integer.getInteger("bench.calendar.iterations", 2000);
+	private final int warmup = Integer.getInteger("bench.calendar.warmup", 500);
+	private final double maxP99Millis = Double.parseDouble(System.getProperty("bench.calendar.max-p99-ms", "20"));
+	private final String url = System.getProperty("bench.calendar.url",
+			"jdbc:h2:file:./target/calendar-benchmark/hms-" + appointments + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+
+	@Test
+	void calendarsAtScale() {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HospitalManagementSystemApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=" + url,
+						"spring.datasource.username=" + System.getProperty("bench.calendar.username", "sa"),
+						"spring.datasource.password=" + System.getProperty("bench.calendar.password", ""),
+						"spring.jpa.hibernate.ddl-auto=update",
+						"spring.jpa.properties.hibernate.generate_statistics=false",
+						"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+								+ CapturingStatementInspector.Inspector.class.getName(),
+						"seed.departments=12",
+						"seed.doctors=" + Math.max(50, appointments / 2000),
+						"seed.patients=" + Math.max(1000, appointments / 10),
+						"seed.appointments=" + appointments,
+						"logging.level.root=WARN",
+						"logging.level.com.example.demo.config.SyntheticDataGenerator=INFO")
+				.run()) {
+			run(context);
+		}
+	}
+
+	private void run(ConfigurableApplicationContext context) {
+		AppointmentCalendarService calendar = context.getBean(AppointmentCalendarService.class);
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		List<Long> doctorIds = jdbc.queryForList("select id from doctors", Long.class);
+		List<Long> departmentIds = jdbc.queryForList("select id from departments", Long.class);
+		Long rows = jdbc.queryForObject("select count(*) from appointments", Long.class);
+		LocalDate first = jdbc.queryForObject("select min(appointment_date) from appointments", Timestamp.class)
+				.toLocalDateTime().toLocalDate();
+		LocalDate last = jdbc.queryForObject("select max(appointment_date) from appointments", Timestamp.class)
+				.toLocalDateTime().toLocalDate();
+		int days = (int) (last.toEpochDay() - first.toEpochDay()) + 1;
+
+		calendar.findByDoctor(doctorIds.get(0), first, Span.DAY, null, 50);
+		assertUsesIndex(jdbc, "idx_appointments_doctor_date", doctorIds.get(0), first);
+		calendar.findByDepartment(departmentIds.get(0), first, Span.DAY, null, 50);
+		assertUsesIndex(jdbc, "idx_appointments_department_date", departmentIds.get(0), first);
+
+		Map<String, BiConsumer<Random, LocalDate>> cases = new LinkedHashMap<>();
+		cases.put("doctor day", (random, date) ->
+				calendar.findByDoctor(pick(random, doctorIds), date, Span.DAY, null, 50));
+		cases.put("doctor week", (random, date) ->
+				calendar.findByDoctor(pick(random, doctorIds), date, Span.WEEK, null, 200));
+		cases.put("department day, first page", (random, date) ->
+				calendar.findByDepartment(pick(random, departmentIds), date, Span.DAY, null, 50));
+		cases.put("department week, first page", (random, date) ->
+				calendar.findByDepartment(pick(random, departmentIds), date, Span.WEEK, null, 50));
+
+		System.out.printf("%n%d appointments from %s to %s, %d doctors, %d departments%n", rows, first, last,
+				doctorIds.size(), departmentIds.size());
+		System.out.printf("%-30s %10s %10s %10s %10s%n", "case", "p50 ms", "p95 ms", "p99 ms", "max ms");
+		Map<String, Latencies> results = new LinkedHashMap<>();
+		cases.forEach((name, call) -> {
+			Random random = new Random(11);
+			Latencies latencies = new Latencies();
+			for (int i = 0; i < warmup + iterations; i++) {
+				LocalDate date = first.plusDays(random.nextInt(days));
+				long startedAt = System.nanoTime();
+				call.accept(random, date);
+				if (i >= warmup) {
+					latencies.record(System.nanoTime() - startedAt);
+				}
+			}
+			System.out.printf("%-30s %10.2f %10.2f %10.2f %10.2f%n", name, latencies.percentileMillis(50),
+					latencies.percentileMillis(95), latencies.percentileMillis(99), latencies.percentileMillis(100));
+			results.put(name, latencies);
+		});
+		results.forEach((name, latencies) ->
+				assertThat(latencies.percentileMillis(99)).as("p99 of " + name).isLessThanOrEqualTo(maxP99Millis));
+	}
+
+	/** EXPLAIN of the statement the last calendar call sent; H2 and MySQL both name the index they use. */
+	private static void assertUsesIndex(JdbcTemplate jdbc, String index, Long ownerId, LocalDate date) {
+		String sql = CapturingStatementInspector.lastStatement();
+		String plan = jdbc.queryForList("explain " + sql, ownerId, date.atStartOfDay(), date.plusDays(1).atStartOfDay(), 51)
+				.toString();
+		System.out.println(plan);
+		assertThat(plan).as("plan of %s", sql).containsIgnoringCase(index);
+	}
+
+	private static Long pick(Random random, List<Long> ids) {
+		return ids.get(random.nextInt(ids.size()));
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.demo.bench;
+
+import java.util.Arrays;
+
+/** Append-only latency samples in nanoseconds, safe to record into from many threads. */
+final class Latencies {
+
+	private long[] samples = new long[1024];
+	private int count;
+
+	synchronized void record(long nanos) {
+		if (count == samples.length) {
+			samples = Arrays.copyOf(samples, count * 2);
+		}
+		samples[count++] = nanos;
+	}
+
+	synchronized void addAll(Latencies other) {
+		long[] theirs;
+		int n;
+		synchronized (other) {
+			theirs = other.samples;
+			n = other.count;
+		}
+		for (int i = 0; i < n; i++) {
+			record(theirs[i]);
+		}
+	}
+
+	synchronized int count() {
+		return count;
+	}
+
+	/** Nearest-rank percentile in milliseconds; {@code 100} is the maximum. */
+	synchronized double percentileMillis(double percentile) {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		long[] sorted = Arrays.copyOf(samples, count);
+		Arrays.sort(sorted);
+		int index = Math.max(0, (int) Math.ceil(percentile / 100.0 * count) - 1);
+		return sorted[index] / 1e6;
+	}
+}
@@ -0,0 +1,247 @@
+package com.example.demo.bench;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.HospitalManagementSystemApplication;
+import com.example.demo.config.SyntheticDataGenerator;
+
+/**
+ * Open-loop HTTP load driver. Requests go out at a fixed rate whether or not earlier ones have
+ * answered, and latency is measured from the moment each request was due, so a stalled server shows up
+ * as queueing delay instead of a politely lower request rate.
+ *
+ * <p>By default it boots the application with the {@code loadtest} profile on embedded H2, filled by
+ * {@link SyntheticDataGenerator}; {@code -Dload.target=http://host:8080} drives an already running instance
+ * with its own data instead. Run with
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=LoadTest -Dload.rate=300 -Dload.duration=60
+ * </pre>
+ * Options: {@code load.rate} (requests per second), {@code load.duration} and {@code load.warmup}
+ * (seconds), {@code load.mix} (weights per endpoint, e.g.
+ * {@code appointments-by-doctor=70,patient-by-id=20,book=10}; {@code doctor-calendar} is also available), {@code load.max-error-rate}, and the
+ * dataset sizes {@code seed.doctors}, {@code seed.patients} and {@code seed.appointments}. The per-endpoint
+ * table is printed and written to {@code target/load-test/} as CSV for comparing commits. Rejected
+ * double-bookings (409) are counted separately and are not errors.
+ */
+@Tag("benchmark")
+class LoadTest {
+
+	private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+	private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\"\\s*:\\s*\"([^\"]+)\"");
+	private static final int MAX_DISCOVERED = 5000;
+
+	private final String target = System.getProperty("load.target");
+	private final double rate = Double.parseDouble(System.getProperty("load.rate", "100"));
+	private final Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30L));
+	private final Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10L));
+	private final String mix = System.getProperty("load.mix", "appointments-by-doctor=70,patient-by-id=20,book=10");
+	private final double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.executor(Executors.newCachedThreadPool())
+			.build();
+
+	@Test
+	void replayMix() throws Exception {
+		if (target != null) {
+			run(target.replaceAll("/+$", ""));
+			return;
+		}
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HospitalManagementSystemApplication.class)
+				.profiles("loadtest")
+				.properties("server.port=0")
+				.run()) {
+			run("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+		}
+	}
+
+	private void run(String base) throws Exception {
+		List<Long> doctorIds = discoverIds(base + "/api/doctors");
+		List<Long> patientIds = discoverIds(base + "/api/patients");
+		assertThat(doctorIds).as("doctors at " + base).isNotEmpty();
+		assertThat(patientIds).as("patients at " + base).isNotEmpty();
+
+		Map<String, Endpoint> endpoints = endpoints(base, doctorIds, patientIds);
+		List<Endpoint> weighted = new ArrayList<>();
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.trim().split("=");
+			Endpoint endpoint = endpoints.get(parts[0]);
+			assertThat(endpoint).as("endpoint '%s' in load.mix, known: %s", parts[0], endpoints.keySet()).isNotNull();
+			for (int i = 0; i < Integer.parseInt(parts[1]); i++) {
+				weighted.add(endpoint);
+			}
+		}
+
+		Random random = new Random(7);
+		long period = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+		long startedAt = System.nanoTime();
+		long measureFrom = startedAt + warmup.toNanos();
+		long end = measureFrom + duration.toNanos();
+		AtomicLong inFlight = new AtomicLong();
+		for (long due = startedAt; due < end; due += period) {
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Endpoint endpoint = weighted.get(random.nextInt(weighted.size()));
+			HttpRequest request = endpoint.request.apply(random);
+			boolean measured = due >= measureFrom;
+			long scheduled = due;
+			inFlight.incrementAndGet();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+				if (measured) {
+					endpoint.record(System.nanoTime() - scheduled, failure == null ? response.statusCode() : -1);
+				}
+				inFlight.decrementAndGet();
+			});
+		}
+		long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (inFlight.get() > 0 && System.nanoTime() < giveUpAt) {
+			TimeUnit.MILLISECONDS.sleep(50);
+		}
+
+		report(endpoints.values(), inFlight.get());
+	}
+
+	private Map<String, Endpoint> endpoints(String base, List<Long> doctorIds, List<Long> patientIds) {
+		Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+		endpoints.put("appointments-by-doctor", new Endpoint("GET /api/appointments?doctorId=", random ->
+				HttpRequest.newBuilder(URI.create(base + "/api/appointments?doctorId="
+						+ doctorIds.get(random.nextInt(doctorIds.size())))).build()));
+		endpoints.put("doctor-calendar", new Endpoint("GET /api/doctors/{id}/calendar", random ->
+				HttpRequest.newBuilder(URI.create(base + "/api/doctors/" + doctorIds.get(random.nextInt(doctorIds.size()))
+						+ "/calendar?span=week&date=" + LocalDate.now().plusDays(random.nextInt(120) - 60))).build()));
+		endpoints.put("patient-by-id", new Endpoint("GET /api/patients/{id}", random ->
+				HttpRequest.newBuilder(URI.create(base + "/api/patients/"
+						+ patientIds.get(random.nextInt(patientIds.size())))).build()));
+		endpoints.put("book", new Endpoint("POST /api/appointments", random -> {
+			LocalDateTime start = LocalDate.now().plusDays(1 + random.nextInt(365))
+					.atTime(9, 0).plusMinutes(30L * random.nextInt(16));
+			String body = "{\"patientId\":" + patientIds.get(random.nextInt(patientIds.size()))
+					+ ",\"doctorId\":" + doctorIds.get(random.nextInt(doctorIds.size()))
+					+ ",\"appointmentDate\":\"" + start + "\"}";
+			return HttpRequest.newBuilder(URI.create(base + "/api/appointments"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(body))
+					.build();
+		}));
+		return endpoints;
+	}
+
+	private List<Long> discoverIds(String url) throws IOException, InterruptedException {
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			String page = url + "?limit=200" + (cursor != null ? "&after=" + cursor : "");
+			String body = client.send(HttpRequest.newBuilder(URI.create(page)).build(),
+					HttpResponse.BodyHandlers.ofString()).body();
+			Matcher id = ID.matcher(body);
+			while (id.find()) {
+				ids.add(Long.parseLong(id.group(1)));
+			}
+			Matcher next = NEXT_CURSOR.matcher(body);
+			cursor = next.find() ? next.group(1) : null;
+		} while (cursor != null && ids.size() < MAX_DISCOVERED);
+		return ids;
+	}
+
+	private void report(Iterable<Endpoint> endpoints, long dropped) throws IOException {
+		double seconds = duration.toNanos() / 1e9;
+		List<String> rows = new ArrayList<>();
+		rows.add("endpoint,requests,req_per_s,p50_ms,p95_ms,p99_ms,max_ms,error_rate,conflicts");
+		long requests = 0;
+		long errors = 0;
+		System.out.printf("%nrate=%.0f/s duration=%ds warmup=%ds mix=%s%n", rate, duration.toSeconds(),
+				warmup.toSeconds(), mix);
+		System.out.printf("%-34s %9s %9s %9s %9s %9s %9s %8s %9s%n", "endpoint", "requests", "req/s",
+				"p50 ms", "p95 ms", "p99 ms", "max ms", "errors", "conflicts");
+		for (Endpoint endpoint : endpoints) {
+			int count = endpoint.latencies.count();
+			if (count == 0) {
+				continue;
+			}
+			double errorRate = (double) endpoint.errors.get() / count;
+			System.out.printf("%-34s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%% %9d%n", endpoint.name, count,
+					count / seconds, endpoint.latencies.percentileMillis(50), endpoint.latencies.percentileMillis(95),
+					endpoint.latencies.percentileMillis(99), endpoint.latencies.percentileMillis(100),
+					errorRate * 100, endpoint.conflicts.get());
+			rows.add(String.format("%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.4f,%d", endpoint.name, count, count / seconds,
+					endpoint.latencies.percentileMillis(50), endpoint.latencies.percentileMillis(95),
+					endpoint.latencies.percentileMillis(99), endpoint.latencies.percentileMillis(100), errorRate,
+					endpoint.conflicts.get()));
+			requests += count;
+			errors += endpoint.errors.get();
+		}
+		if (dropped > 0) {
+			System.out.println(dropped + " requests still unanswered after 60 s were not counted");
+		}
+
+		Path directory = Path.of("target", "load-test");
+		Files.createDirectories(directory);
+		Path file = directory.resolve("report-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+			out.printf("# rate=%.0f duration=%d warmup=%d mix=%s target=%s%n", rate, duration.toSeconds(),
+					warmup.toSeconds(), mix, target != null ? target : "embedded");
+			rows.forEach(out::println);
+		}
+		System.out.println("Report written to " + file.toAbsolutePath());
+
+		assertThat(requests).isPositive();
+		assertThat((double) (errors + dropped) / requests).as("error rate").isLessThanOrEqualTo(maxErrorRate);
+	}
+
+	private static final class Endpoint {
+		private final String name;
+		private final Function<Random, HttpRequest> request;
+		private final Latencies latencies = new Latencies();
+		private final AtomicLong errors = new AtomicLong();
+		private final AtomicLong conflicts = new AtomicLong();
+
+		Endpoint(String name, Function<Random, HttpRequest> request) {
+			this.name = name;
+			this.request = request;
+		}
+
+		void record(long nanos, int status) {
+			latencies.record(nanos);
+			if (status == 409) {
+				conflicts.incrementAndGet();
+			} else if (status < 200 || status >= 300) {
+				errors.incrementAndGet();
+			}
+		}
+	}
+}
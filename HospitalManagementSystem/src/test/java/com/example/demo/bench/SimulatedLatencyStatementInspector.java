@@ -0,0 +1,31 @@
+package com.example.demo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Adds a fixed delay in front of every SQL statement, standing in for the network round trip to MySQL
+ * that the embedded database does not have. The delay is taken while the connection is held, so the
+ * pool fills up the way it does against a real server.
+ */
+public class SimulatedLatencyStatementInspector implements StatementInspector {
+
+	private static volatile long latencyMillis;
+
+	public static void setLatencyMillis(long millis) {
+		latencyMillis = millis;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		if (latencyMillis > 0) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return sql;
+	}
+}
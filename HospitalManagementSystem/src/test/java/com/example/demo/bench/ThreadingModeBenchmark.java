@@ -0,0 +1,159 @@
+package com.example.demo.bench;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.HospitalManagementSystemApplication;
+
+/**
+ * Throughput and tail latency of {@code GET /api/appointments?doctorId=} on the platform-thread pool
+ * versus the {@code virtual-threads} profile. Each mode boots its own application on a random port
+ * against embedded H2, with {@link SimulatedLatencyStatementInspector} adding a database round trip,
+ * and is then driven by a fixed number of closed-loop clients.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=ThreadingModeBenchmark}; tune with
+ * {@code -Dbench.concurrency}, {@code -Dbench.duration} (seconds), {@code -Dbench.db-latency-ms},
+ * {@code -Dbench.platform-threads} and {@code -Dbench.pool-size}. Both modes are always measured, so
+ * the benchmark fails on a runtime older than Java 21, where the {@code virtual-threads} profile has no
+ * effect; the build targets 17, so point the forked JVM at a JDK 21 with {@code -Dbench.jvm}.
+ */
+@Tag("benchmark")
+class ThreadingModeBenchmark {
+
+	private static final Pattern FIRST_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+	private final int concurrency = Integer.getInteger("bench.concurrency", 400);
+	private final Duration duration = Duration.ofSeconds(Long.getLong("bench.duration", 15L));
+	private final Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmup", 5L));
+	private final long dbLatencyMillis = Long.getLong("bench.db-latency-ms", 20L);
+	private final int platformThreads = Integer.getInteger("bench.platform-threads", 200);
+	private final int poolSize = Integer.getInteger("bench.pool-size", 50);
+
+	@Test
+	void compareThreadingModes() throws Exception {
+		assertThat(Runtime.version().feature())
+				.as("virtual threads need a Java 21+ runtime (running %s); pass -Dbench.jvm=<jdk-21>/bin/java",
+						Runtime.version())
+				.isGreaterThanOrEqualTo(21);
+		SimulatedLatencyStatementInspector.setLatencyMillis(dbLatencyMillis);
+		List<Result> results = new ArrayList<>();
+		results.add(run("platform", false));
+		results.add(run("virtual", true));
+
+		System.out.printf("%nconcurrency=%d duration=%ds db-latency=%dms pool=%d platform-threads=%d%n",
+				concurrency, duration.toSeconds(), dbLatencyMillis, poolSize, platformThreads);
+		System.out.printf("%-10s %10s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+		for (Result result : results) {
+			System.out.printf("%-10s %10.1f %10.2f %10.2f %10.2f %8d%n", result.mode, result.throughput(),
+					result.percentile(50), result.percentile(99), result.percentile(100), result.errors);
+		}
+		results.forEach(result -> assertThat(result.latencies.count()).isPositive());
+	}
+
+	private Result run(String mode, boolean virtual) throws Exception {
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(HospitalManagementSystemApplication.class)
+				.properties(
+						"server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:bench-" + mode + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+						"spring.datasource.hikari.maximum-pool-size=" + poolSize,
+						"server.tomcat.threads.max=" + platformThreads,
+						"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+								+ SimulatedLatencyStatementInspector.class.getName(),
+						"logging.level.root=WARN");
+		if (virtual) {
+			builder.profiles("virtual-threads");
+		}
+		try (ConfigurableApplicationContext context = builder.run()) {
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			String base = "http://localhost:" + port;
+			HttpClient client = HttpClient.newBuilder()
+					.version(HttpClient.Version.HTTP_1_1)
+					.executor(Executors.newCachedThreadPool())
+					.build();
+			URI target = URI.create(base + "/api/appointments?doctorId=" + firstDoctorId(client, base) + "&limit=20");
+
+			drive(client, target, warmup);
+			Result result = drive(client, target, duration);
+			result.mode = mode;
+			return result;
+		}
+	}
+
+	private static long firstDoctorId(HttpClient client, String base) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/doctors?limit=1")).build();
+		Matcher matcher = FIRST_ID.matcher(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+		assertThat(matcher.find()).as("seeded doctor").isTrue();
+		return Long.parseLong(matcher.group(1));
+	}
+
+	private Result drive(HttpClient client, URI target, Duration length) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(30)).build();
+		long startedAt = System.nanoTime();
+		long deadline = startedAt + length.toNanos();
+		ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+		List<Future<Result>> workers = new ArrayList<>();
+		for (int i = 0; i < concurrency; i++) {
+			workers.add(clients.submit(() -> {
+				Result local = new Result();
+				while (System.nanoTime() < deadline) {
+					long sent = System.nanoTime();
+					try {
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() != 200) {
+							local.errors++;
+						}
+					} catch (Exception e) {
+						local.errors++;
+					}
+					local.latencies.record(System.nanoTime() - sent);
+				}
+				return local;
+			}));
+		}
+		Result total = new Result();
+		for (Future<Result> worker : workers) {
+			total.merge(worker.get());
+		}
+		clients.shutdown();
+		total.elapsedNanos = System.nanoTime() - startedAt;
+		return total;
+	}
+
+	private static final class Result {
+		private String mode;
+		private final Latencies latencies = new Latencies();
+		private long errors;
+		private long elapsedNanos;
+
+		void merge(Result other) {
+			latencies.addAll(other.latencies);
+			errors += other.errors;
+		}
+
+		double throughput() {
+			return latencies.count() / (elapsedNanos / 1e9);
+		}
+
+		double percentile(int p) {
+			return latencies.percentileMillis(p);
+		}
+	}
+}
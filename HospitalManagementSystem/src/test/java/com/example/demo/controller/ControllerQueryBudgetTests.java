@@ -0,0 +1,187 @@
+package com.example.demo.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.DoctorRepository;
+import com.example.demo.support.ApplicationTestSupport;
+
+/**
+ * Calls every API endpoint with query budgets enforced (see the test application.properties), so an
+ * endpoint that runs more statements than its {@link QueryBudget}, or repeats one statement past the
+ * repeat limit, answers 500 and fails here. Every department, doctor and patient has several related
+ * rows, enough for an N+1 load to show up as a repeated statement.
+ */
+class ControllerQueryBudgetTests extends ApplicationTestSupport {
+
+	private static final int ROWS = 6;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	@Qualifier("requestMappingHandlerMapping")
+	private RequestMappingHandlerMapping handlerMapping;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private DepartmentRepository departmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	private Department department;
+	private final List<Doctor> doctors = new ArrayList<>();
+	private final List<Patient> patients = new ArrayList<>();
+	private final List<Appointment> appointments = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			department = departmentRepository.save(Department.builder().name("Budget " + System.nanoTime()).build());
+			for (int i = 0; i < ROWS; i++) {
+				doctors.add(doctorRepository.save(Doctor.builder()
+						.name("Dr. Budget " + i).specialization("General").department(department).build()));
+				patients.add(patientRepository.save(Patient.builder()
+						.name("Budget Patient " + i).dateOfBirth(LocalDate.of(1980, 1, 1 + i)).build()));
+			}
+			for (int i = 0; i < ROWS * ROWS; i++) {
+				appointments.add(appointmentRepository.save(Appointment.builder()
+						.doctor(doctors.get(i % ROWS))
+						.patient(patients.get(i / ROWS))
+						.department(department)
+						.appointmentDate(LocalDate.now().plusDays(1 + i).atTime(10, 0))
+						.build()));
+			}
+		});
+	}
+
+	@Test
+	void everyEndpointDeclaresABudget() {
+		List<String> missing = new ArrayList<>();
+		for (HandlerMethod method : handlerMapping.getHandlerMethods().values()) {
+			if (method.getBeanType().getPackageName().startsWith("com.example.demo")
+					&& !method.hasMethodAnnotation(QueryBudget.class)) {
+				missing.add(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+			}
+		}
+		assertThat(missing).as("controller methods without @QueryBudget").isEmpty();
+	}
+
+	@Test
+	void readsStayWithinBudget() throws Exception {
+		Long doctorId = doctors.get(0).getId();
+		Long patientId = patients.get(0).getId();
+		Long departmentId = department.getId();
+		String from = LocalDate.now().toString();
+		String to = LocalDate.now().plusDays(60).toString();
+		perform(get("/api/analytics/utilization/doctors/" + doctorId).param("from", from).param("to", to));
+		perform(get("/api/analytics/utilization/departments/" + departmentId).param("from", from).param("to", to)
+				.param("granularity", "week"));
+		perform(get("/api/appointments"));
+		perform(get("/api/appointments").param("doctorId", doctorId.toString()));
+		perform(get("/api/appointments").param("patientId", patientId.toString()));
+		perform(get("/api/appointments/" + appointments.get(0).getId()));
+		perform(get("/api/appointments/availability").param("departmentId", departmentId.toString()));
+		perform(get("/api/appointments/export").param("from", LocalDate.now().toString())
+				.param("to", LocalDate.now().plusDays(60).toString()));
+		perform(get("/api/cache/stats"));
+		perform(get("/api/cache/stats/hibernate"));
+		perform(get("/api/dashboard/summary"));
+		perform(get("/api/departments"));
+		perform(get("/api/departments/" + departmentId));
+		perform(get("/api/departments/" + departmentId + "/calendar").param("date", LocalDate.now().plusDays(1).toString())
+				.param("span", "week"));
+		perform(get("/api/doctors"));
+		perform(get("/api/doctors").param("departmentId", departmentId.toString()));
+		perform(get("/api/doctors/" + doctorId));
+		perform(get("/api/doctors/" + doctorId + "/calendar").param("date", LocalDate.now().plusDays(1).toString())
+				.param("span", "week"));
+		perform(get("/api/patients"));
+		perform(get("/api/patients/search").param("q", "Budget"));
+		perform(get("/api/patients/" + patientId));
+	}
+
+	@Test
+	void writesStayWithinBudget() throws Exception {
+		Long departmentId = department.getId();
+		Long doctorId = doctors.get(1).getId();
+		Long patientId = patients.get(1).getId();
+
+		perform(post("/api/appointments").contentType(MediaType.APPLICATION_JSON).content(
+				"{\"patientId\":" + patientId + ",\"doctorId\":" + doctorId + ",\"appointmentDate\":\""
+						+ LocalDate.now().plusYears(1).atTime(11, 0) + "\"}"));
+		Appointment appointment = appointments.get(1);
+		perform(put("/api/appointments/" + appointment.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"notes\":\"Bring reports\",\"version\":" + appointment.getVersion() + "}"));
+		perform(patch("/api/appointments/" + appointments.get(3).getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"status\":\"COMPLETED\"}"));
+		perform(delete("/api/appointments/" + appointments.get(2).getId()));
+		perform(post("/api/appointments/archive"));
+		perform(post("/api/appointments/status-sweep"));
+
+		String newDepartment = "{\"name\":\"Budget Ward " + System.nanoTime() + "\"}";
+		perform(post("/api/departments").contentType(MediaType.APPLICATION_JSON).content(newDepartment));
+		perform(put("/api/departments/" + departmentId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"" + department.getName() + " renamed\",\"description\":\"Updated\"}"));
+		perform(patch("/api/departments/" + departmentId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"description\":\"Patched\"}"));
+
+		String doctor = "{\"name\":\"Dr. New\",\"specialization\":\"General\",\"departmentId\":" + departmentId + "}";
+		perform(post("/api/doctors").contentType(MediaType.APPLICATION_JSON).content(doctor));
+		perform(put("/api/doctors/" + doctorId).contentType(MediaType.APPLICATION_JSON).content(doctor));
+		perform(patch("/api/doctors/" + doctorId).contentType(MediaType.APPLICATION_JSON).content("{\"phone\":\"555-0100\"}"));
+		perform(delete("/api/doctors/" + doctors.get(2).getId()));
+
+		String patient = "{\"name\":\"New Patient\",\"email\":\"new.patient@example.com\"}";
+		perform(post("/api/patients").contentType(MediaType.APPLICATION_JSON).content(patient));
+		perform(put("/api/patients/" + patientId).contentType(MediaType.APPLICATION_JSON).content(patient));
+		perform(patch("/api/patients/" + patientId).contentType(MediaType.APPLICATION_JSON).content("{\"phone\":\"555-0199\"}"));
+		perform(delete("/api/patients/" + patients.get(2).getId()));
+		perform(post("/api/patients/import").contentType("text/csv")
+				.content("name,email\nImported One,one@example.com\nImported Two,two@example.com\n"));
+
+		perform(delete("/api/departments/" + departmentId));
+		perform(post("/api/analytics/utilization/rebuild"));
+	}
+
+	private void perform(RequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		String body = result.getResponse().getContentAsString();
+		assertThat(result.getResponse().getStatus())
+				.as("%s %s: %s", result.getRequest().getMethod(), result.getRequest().getRequestURI(), body)
+				.isLessThan(500);
+	}
+}
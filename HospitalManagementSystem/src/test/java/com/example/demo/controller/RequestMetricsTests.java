@@ -0,0 +1,52 @@
+package com.example.demo.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entity.Patient;
+import com.example.demo.support.ApplicationTestSupport;
+
+/**
+ * Scrapes {@code /actuator/prometheus} after an API call and checks that the per-request database
+ * work recorded by {@link com.example.demo.config.RequestMetricsInterceptor} is exported, including the
+ * entity loads counted by the post-load integrator Hibernate picks up from {@code META-INF/services}.
+ */
+class RequestMetricsTests extends ApplicationTestSupport {
+
+	private static final String ENDPOINT = "controller=\"PatientController\",method=\"getById\"";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void requestSeriesAreScrapedWithTheirCounts() throws Exception {
+		Patient patient = patient("Metrics Patient");
+		mockMvc.perform(get("/api/patients/{id}", patient.getId())).andExpect(status().isOk());
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(sample(scrape, "hospital_request_seconds_count")).isGreaterThanOrEqualTo(1);
+		assertThat(sample(scrape, "hospital_request_statements_count")).isGreaterThanOrEqualTo(1);
+		assertThat(sample(scrape, "hospital_request_entities_loaded_count")).isGreaterThanOrEqualTo(1);
+		assertThat(sample(scrape, "hospital_request_entities_loaded_sum")).isGreaterThanOrEqualTo(1);
+		assertThat(sample(scrape, "hospital_request_connection_wait_seconds_count")).isGreaterThanOrEqualTo(1);
+	}
+
+	/** Value of the series' sample for the patient lookup endpoint; fails when there is none. */
+	private static double sample(String scrape, String series) {
+		Matcher matcher = Pattern.compile("(?m)^" + series + "\\{[^}]*" + Pattern.quote(ENDPOINT) + "[^}]*} (\\S+)$")
+				.matcher(scrape);
+		assertThat(matcher.find()).as("%s for %s in%n%s", series, ENDPOINT, scrape).isTrue();
+		return Double.parseDouble(matcher.group(1));
+	}
+}
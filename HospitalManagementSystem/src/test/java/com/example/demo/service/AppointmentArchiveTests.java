@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.ArchiveReportDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.ArchivedAppointmentRepository;
+import com.example.demo.service.UtilizationService.Granularity;
+import com.example.demo.support.ApplicationTestSupport;
+
+// Archives every appointment past the horizon, so it needs a database of its own
+@TestPropertySource(properties = {
+		"archive.horizon-days=30",
+		"archive.batch-size=2"
+})
+class AppointmentArchiveTests extends ApplicationTestSupport {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	@Autowired
+	private AppointmentArchive appointmentArchive;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private UtilizationService utilizationService;
+
+	@Autowired
+	private UtilizationRollups utilizationRollups;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private ArchivedAppointmentRepository archiveRepository;
+
+	private DoctorDTO doctor;
+	private Patient patient;
+	private final List<AppointmentDTO> booked = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		doctor = doctor("Dr. Archive", department("Archive Ward"));
+		patient = patient("Archive Patient");
+		// Four before the 30-day horizon, two after it
+		for (int daysAgo : new int[] {400, 200, 100, 40, 10, -5}) {
+			booked.add(book(patient.getId(), doctor.getId(), TODAY.minusDays(daysAgo).atTime(10, 0)));
+		}
+	}
+
+	@Test
+	void oldAppointmentsMoveInBatchesAndStayReadable() {
+		ArchiveReportDTO report = appointmentArchive.archive();
+
+		assertThat(report.getArchived()).isEqualTo(4);
+		assertThat(report.getBatches()).isEqualTo(2);
+		assertThat(appointmentRepository.findByPatientId(patient.getId())).hasSize(2);
+		assertThat(archiveRepository.findFirstPageByPatientId(patient.getId(), Limit.of(10))).hasSize(4);
+
+		List<AppointmentDTO> history = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<AppointmentDTO> page = appointmentService.findByPatient(patient.getId(), cursor, 2);
+			history.addAll(page.getItems());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		assertThat(history).extracting(AppointmentDTO::getId)
+				.containsExactlyElementsOf(booked.stream().map(AppointmentDTO::getId).toList());
+
+		AppointmentDTO oldest = appointmentService.findById(booked.get(0).getId());
+		assertThat(oldest.getDoctorName()).isEqualTo("Dr. Archive");
+		assertThat(oldest.getPatientName()).isEqualTo("Archive Patient");
+	}
+
+	@Test
+	void rollupsKeepArchivedAppointmentsUntilThePatientGoes() {
+		LocalDate oldest = TODAY.minusDays(400);
+		appointmentArchive.archive();
+		utilizationRollups.rebuild();
+		assertThat(doctorTotal(oldest)).isEqualTo(1);
+
+		patientService.delete(patient.getId());
+
+		assertThat(archiveRepository.findFirstPageByPatientId(patient.getId(), Limit.of(10))).isEmpty();
+		assertThat(doctorTotal(oldest)).isZero();
+		assertThat(doctorTotal(TODAY.plusDays(5))).isZero();
+	}
+
+	private long doctorTotal(LocalDate date) {
+		return utilizationService.forDoctor(doctor.getId(), date, date, Granularity.DAY).get(0).getTotal();
+	}
+}
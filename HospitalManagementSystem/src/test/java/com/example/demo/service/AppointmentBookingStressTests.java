@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.DoctorRepository;
+import com.example.demo.support.ApplicationTestSupport;
+
+/**
+ * Concurrent booking through {@link AppointmentService#create}: admission is serialized per doctor by
+ * {@link DoctorScheduleIndex}, so racing receptionists never get overlapping slots through, while
+ * bookings for different doctors do not wait on each other.
+ */
+class AppointmentBookingStressTests extends ApplicationTestSupport {
+
+	private static final int THREADS = 8;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DoctorScheduleIndex scheduleIndex;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final List<Doctor> doctors = new ArrayList<>();
+	private Patient patient;
+	private LocalDate day;
+
+	@BeforeEach
+	void setUp() {
+		patient = patient("Stress Patient");
+		for (int i = 0; i < THREADS; i++) {
+			doctors.add(doctorRepository.save(Doctor.builder().name("Dr. Stress " + i).specialization("General").build()));
+		}
+		day = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(30, 300));
+	}
+
+	@Test
+	void racingBookingsNeverOverlap() throws Exception {
+		List<Doctor> contended = doctors.subList(0, 4);
+		AtomicInteger booked = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		// Starts every 10 minutes against a 30 minute slot, so most attempts collide with a neighbour.
+		runConcurrently(16, worker -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = 0; i < 40; i++) {
+				Doctor doctor = contended.get(random.nextInt(contended.size()));
+				LocalDateTime start = day.atTime(10, 0).plusMinutes(10L * random.nextInt(24));
+				try {
+					book(doctor, start);
+					booked.incrementAndGet();
+				} catch (ConflictException e) {
+					rejected.incrementAndGet();
+				}
+			}
+			return null;
+		});
+
+		assertThat(booked.get()).isPositive();
+		assertThat(rejected.get()).isPositive();
+		Duration slot = scheduleIndex.getSlotLength();
+		int stored = 0;
+		for (Doctor doctor : contended) {
+			List<Appointment> rows = new ArrayList<>(appointmentRepository.findByDoctorId(doctor.getId()));
+			rows.sort(Comparator.comparing(Appointment::getAppointmentDate));
+			for (int i = 1; i < rows.size(); i++) {
+				assertThat(Duration.between(rows.get(i - 1).getAppointmentDate(), rows.get(i).getAppointmentDate()))
+						.as("gap between bookings of doctor %s", doctor.getId())
+						.isGreaterThanOrEqualTo(slot);
+			}
+			stored += rows.size();
+		}
+		assertThat(stored).isEqualTo(booked.get());
+	}
+
+	@Test
+	void anOpenBookingHoldsOnlyItsOwnDoctor() throws Exception {
+		Patient other = patient("Stress Other Patient");
+		LocalDateTime start = day.atTime(7, 0);
+		CountDownLatch booked = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<AppointmentDTO> open = pool.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+				AppointmentDTO created = book(doctors.get(0), start);
+				booked.countDown();
+				try {
+					commit.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return created;
+			}));
+			assertThat(booked.await(30, TimeUnit.SECONDS)).isTrue();
+
+			// The first booking has not committed: another doctor books the same time, the same doctor cannot
+			AppointmentDTO elsewhere = book(other.getId(), doctors.get(1).getId(), start);
+			assertThatThrownBy(() -> book(doctors.get(0), start.plusMinutes(10))).isInstanceOf(ConflictException.class);
+
+			commit.countDown();
+			assertThat(open.get(30, TimeUnit.SECONDS).getDoctorId()).isEqualTo(doctors.get(0).getId());
+			assertThat(elsewhere.getDoctorId()).isEqualTo(doctors.get(1).getId());
+			assertThat(appointmentRepository.findByDoctorId(doctors.get(0).getId())).hasSize(1);
+		} finally {
+			commit.countDown();
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void staleVersionIsRejected() {
+		AppointmentDTO created = book(doctors.get(THREADS - 1), day.atTime(23, 0));
+		AppointmentDTO edited = appointmentService.update(created.getId(),
+				AppointmentDTO.builder().notes("first edit").version(created.getVersion()).build());
+		assertThat(edited.getVersion()).isGreaterThan(created.getVersion());
+
+		assertThatThrownBy(() -> appointmentService.update(created.getId(),
+				AppointmentDTO.builder().notes("second edit").version(created.getVersion()).build()))
+				.isInstanceOf(ConflictException.class);
+	}
+
+	private AppointmentDTO book(Doctor doctor, LocalDateTime start) {
+		return book(patient.getId(), doctor.getId(), start);
+	}
+
+	private static void runConcurrently(int threads, Worker worker) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch ready = new CountDownLatch(1);
+		List<Future<Void>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				int index = i;
+				futures.add(pool.submit((Callable<Void>) () -> {
+					ready.await();
+					return worker.run(index);
+				}));
+			}
+			ready.countDown();
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@FunctionalInterface
+	private interface Worker {
+		Void run(int index) throws Exception;
+	}
+}
@@ -0,0 +1,151 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.DoctorRepository;
+import com.example.demo.support.ApplicationTestSupport;
+import com.example.demo.support.CapturingStatementInspector;
+
+class AppointmentCalendarServiceTests extends ApplicationTestSupport {
+
+	// A Wednesday; its week runs from Monday 2031-01-06 to Sunday 2031-01-12
+	private static final LocalDate DAY = LocalDate.of(2031, 1, 8);
+
+	@Autowired
+	private AppointmentCalendarService calendarService;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DepartmentRepository departmentRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Department department;
+	private Doctor doctor;
+	private Doctor colleague;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			department = departmentRepository.save(Department.builder().name("Calendar " + System.nanoTime()).build());
+			doctor = doctorRepository.save(Doctor.builder()
+					.name("Dr. Calendar").specialization("General").department(department).build());
+			colleague = doctorRepository.save(Doctor.builder()
+					.name("Dr. Colleague").specialization("General").department(department).build());
+			Patient patient = patientRepository.save(Patient.builder()
+					.name("Calendar Patient").dateOfBirth(LocalDate.of(1980, 1, 1)).build());
+			// Sunday before the week, every day of the week at 16:00 and 09:00, and the Monday after
+			save(patient, doctor, DAY.minusDays(3).atTime(23, 30));
+			for (int day = 0; day < 7; day++) {
+				save(patient, doctor, DAY.minusDays(2).plusDays(day).atTime(16, 0));
+				save(patient, colleague, DAY.minusDays(2).plusDays(day).atTime(9, 0));
+			}
+			save(patient, doctor, DAY.plusDays(5).atStartOfDay());
+		});
+	}
+
+	@Test
+	void dayHoldsOnlyThatDoctorsDay() {
+		CursorPageDTO<AppointmentDTO> page = calendarService.findByDoctor(doctor.getId(), DAY,
+				AppointmentCalendarService.Span.DAY, null, 50);
+
+		assertThat(page.getItems()).extracting(AppointmentDTO::getAppointmentDate)
+				.containsExactly(DAY.atTime(16, 0));
+		assertThat(page.getNextCursor()).isNull();
+	}
+
+	@Test
+	void weekRunsFromMondayToSundayInTimeOrder() {
+		List<AppointmentDTO> week = calendarService.findByDoctor(doctor.getId(), DAY,
+				AppointmentCalendarService.Span.WEEK, null, 50).getItems();
+
+		assertThat(week).hasSize(7);
+		assertThat(week.get(0).getAppointmentDate()).isEqualTo(LocalDateTime.of(2031, 1, 6, 16, 0));
+		assertThat(week.get(6).getAppointmentDate()).isEqualTo(LocalDateTime.of(2031, 1, 12, 16, 0));
+		assertThat(week).extracting(AppointmentDTO::getAppointmentDate).isSorted();
+	}
+
+	@Test
+	void departmentWeekPagesThroughEveryDoctor() {
+		List<AppointmentDTO> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<AppointmentDTO> page = calendarService.findByDepartment(department.getId(), DAY,
+					AppointmentCalendarService.Span.WEEK, cursor, 5);
+			seen.addAll(page.getItems());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(seen).hasSize(14);
+		assertThat(seen).extracting(AppointmentDTO::getDoctorName).contains("Dr. Calendar", "Dr. Colleague");
+		assertThat(seen).extracting(AppointmentDTO::getAppointmentDate).isSorted();
+	}
+
+	@Test
+	void calendarQueriesRangeScanTheCompositeIndexes() {
+		LocalDateTime start = DAY.atStartOfDay();
+		LocalDateTime end = start.plusDays(1);
+
+		calendarService.findByDoctor(doctor.getId(), DAY, AppointmentCalendarService.Span.DAY, null, 50);
+		String doctorPlan = explain(doctor.getId(), start, end);
+		assertThat(indexCondition(doctorPlan, "idx_appointments_doctor_date"))
+				.contains("doctor_id = ?1", "appointment_date >= ?2", "appointment_date < ?3");
+		assertThat(doctorPlan).as("rows read in index order, no sort").contains("/* index sorted */");
+
+		calendarService.findByDepartment(department.getId(), DAY, AppointmentCalendarService.Span.DAY, null, 50);
+		String departmentPlan = explain(department.getId(), start, end);
+		assertThat(indexCondition(departmentPlan, "idx_appointments_department_date"))
+				.contains("department_id = ?1", "appointment_date >= ?2", "appointment_date < ?3");
+		assertThat(departmentPlan).as("rows read in index order, no sort").contains("/* index sorted */");
+	}
+
+	/** H2's plan for the statement the last repository call sent, one index comment per table. */
+	private String explain(Long ownerId, LocalDateTime start, LocalDateTime end) {
+		String sql = CapturingStatementInspector.lastStatement();
+		return jdbcTemplate.queryForObject("explain " + sql, String.class, ownerId, start, end, 51);
+	}
+
+	/** The conditions H2 looks up in the given index, from the comment it writes after the table. */
+	private static String indexCondition(String plan, String index) {
+		int at = plan.indexOf("." + index + ":");
+		assertThat(at).as("plan uses %s:%n%s", index, plan).isNotNegative();
+		return plan.substring(at, plan.indexOf("*/", at));
+	}
+
+	private void save(Patient patient, Doctor doctor, LocalDateTime at) {
+		appointmentRepository.save(Appointment.builder()
+				.patient(patient)
+				.doctor(doctor)
+				.department(department)
+				.appointmentDate(at)
+				.build());
+	}
+}
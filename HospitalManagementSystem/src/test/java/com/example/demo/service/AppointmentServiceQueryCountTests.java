@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Doctor;
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.DepartmentRepository;
+import com.example.demo.repository.DoctorRepository;
+import com.example.demo.support.ApplicationTestSupport;
+
+class AppointmentServiceQueryCountTests extends ApplicationTestSupport {
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DepartmentRepository departmentRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Doctor quietDoctor;
+	private Doctor busyDoctor;
+	private Patient quietPatient;
+	private Patient busyPatient;
+	private final List<Department> departments = new ArrayList<>();
+	private final List<Patient> patients = new ArrayList<>();
+	private final List<Appointment> appointments = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Department first = departmentRepository.save(Department.builder().name("Query Count A").build());
+			Department second = departmentRepository.save(Department.builder().name("Query Count B").build());
+			departments.add(first);
+			departments.add(second);
+			quietDoctor = doctorRepository.save(Doctor.builder()
+					.name("Dr. Quiet").specialization("General").department(first).build());
+			busyDoctor = doctorRepository.save(Doctor.builder()
+					.name("Dr. Busy").specialization("General").department(second).build());
+			quietPatient = savePatient("Quiet Patient");
+			busyPatient = savePatient("Busy Patient");
+			appointments.add(saveAppointment(quietPatient, quietDoctor, first, 0));
+			for (int i = 0; i < 12; i++) {
+				Patient patient = i % 2 == 0 ? busyPatient : savePatient("Patient " + i);
+				appointments.add(saveAppointment(patient, busyDoctor, i % 3 == 0 ? null : second, i + 1));
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		transactionTemplate.executeWithoutResult(status -> {
+			appointmentRepository.deleteAllById(appointments.stream().map(Appointment::getId).toList());
+			doctorRepository.deleteAllById(List.of(quietDoctor.getId(), busyDoctor.getId()));
+			patientRepository.deleteAllById(patients.stream().map(Patient::getId).toList());
+			departmentRepository.deleteAllById(departments.stream().map(Department::getId).toList());
+		});
+	}
+
+	@Test
+	void findByDoctorUsesOneStatementRegardlessOfRowCount() {
+		assertThat(countStatements(() -> appointmentService.findByDoctor(quietDoctor.getId(), null, 50))).isEqualTo(1);
+		assertThat(countStatements(() -> appointmentService.findByDoctor(busyDoctor.getId(), null, 50))).isEqualTo(1);
+	}
+
+	@Test
+	void findByPatientUsesOneStatementPerTableRegardlessOfRowCount() {
+		// The first page also reads the archive; pages past the archive cutoff only the hot table
+		assertThat(countStatements(() -> appointmentService.findByPatient(quietPatient.getId(), null, 50))).isEqualTo(2);
+		assertThat(countStatements(() -> appointmentService.findByPatient(busyPatient.getId(), null, 50))).isEqualTo(2);
+		String cursor = appointmentService.findByPatient(busyPatient.getId(), null, 1).getNextCursor();
+		assertThat(countStatements(() -> appointmentService.findByPatient(busyPatient.getId(), cursor, 50))).isEqualTo(1);
+	}
+
+	@Test
+	void findAllAndFindByIdUseOneStatement() {
+		assertThat(countStatements(() -> appointmentService.findAll(null, 50))).isEqualTo(1);
+		assertThat(countStatements(() -> appointmentService.findById(appointments.get(1).getId()))).isEqualTo(1);
+	}
+
+	@Test
+	void findByDoctorMapsAllAssociations() {
+		var rows = appointmentService.findByDoctor(busyDoctor.getId(), null, 50).getItems();
+		assertThat(rows).hasSize(12);
+		assertThat(rows).allSatisfy(row -> {
+			assertThat(row.getDoctorName()).isEqualTo("Dr. Busy");
+			assertThat(row.getPatientName()).isNotBlank();
+		});
+		assertThat(rows).filteredOn(row -> row.getDepartmentId() == null).hasSize(4);
+	}
+
+	@Test
+	void findByDoctorPagesWithOneStatementPerPage() {
+		List<AppointmentDTO> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			statistics().clear();
+			CursorPageDTO<AppointmentDTO> page = appointmentService.findByDoctor(busyDoctor.getId(), cursor, 5);
+			assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+			seen.addAll(page.getItems());
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(seen).extracting(AppointmentDTO::getId)
+				.containsExactlyElementsOf(appointments.subList(1, appointments.size()).stream().map(Appointment::getId).toList());
+	}
+
+	private long countStatements(Supplier<?> call) {
+		statistics().clear();
+		call.get();
+		return statistics().getPrepareStatementCount();
+	}
+
+	private Patient savePatient(String name) {
+		Patient patient = patientRepository.save(Patient.builder()
+				.name(name)
+				.dateOfBirth(LocalDate.of(1980, 1, 1))
+				.build());
+		patients.add(patient);
+		return patient;
+	}
+
+	private Appointment saveAppointment(Patient patient, Doctor doctor, Department department, int dayOffset) {
+		return appointmentRepository.save(Appointment.builder()
+				.patient(patient)
+				.doctor(doctor)
+				.department(department)
+				.appointmentDate(LocalDateTime.now().plusDays(dayOffset + 1))
+				.build());
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.dto.StatusSweepDTO;
+import com.example.demo.dto.UtilizationDTO;
+import com.example.demo.entity.Patient;
+import com.example.demo.service.UtilizationService.Granularity;
+import com.example.demo.support.ApplicationTestSupport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Sweeps every stale appointment, so it needs a database of its own
+@TestPropertySource(properties = {
+		"status-sweep.grace-hours=24",
+		"status-sweep.chunk-size=2",
+		"status-sweep.pause-ms=1"
+})
+class AppointmentStatusSweepTests extends ApplicationTestSupport {
+
+	private static final LocalDate LAST_WEEK = LocalDate.now().minusDays(7);
+
+	@Autowired
+	private AppointmentStatusSweep statusSweep;
+
+	@Autowired
+	private UtilizationService utilizationService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private DoctorDTO doctor;
+	private Patient patient;
+
+	@BeforeEach
+	void setUp() {
+		doctor = doctor("Dr. Sweep", department("Sweep Ward"));
+		patient = patient("Sweep Patient");
+	}
+
+	@Test
+	void staleScheduledAppointmentsBecomeNoShowInChunks() {
+		double movedBefore = meterRegistry.counter("hospital.status.sweep.rows", "status", "NO_SHOW").count();
+		List<AppointmentDTO> stale = List.of(
+				book(LAST_WEEK.atTime(9, 0), null),
+				book(LAST_WEEK.atTime(10, 0), null),
+				book(LAST_WEEK.atTime(11, 0), null));
+		AppointmentDTO completed = book(LAST_WEEK.atTime(12, 0), "COMPLETED");
+		AppointmentDTO cancelled = book(LAST_WEEK.atTime(13, 0), "CANCELLED");
+		AppointmentDTO withinGrace = book(LocalDateTime.now().minusHours(2), null);
+		AppointmentDTO upcoming = book(LocalDateTime.now().plusDays(1), null);
+
+		StatusSweepDTO report = statusSweep.sweep();
+
+		assertThat(report.getUpdated()).isEqualTo(3);
+		assertThat(report.getChunks()).isEqualTo(2);
+		for (AppointmentDTO appointment : stale) {
+			AppointmentDTO swept = appointmentService.findById(appointment.getId());
+			assertThat(swept.getStatus()).isEqualTo("NO_SHOW");
+			assertThat(swept.getVersion()).isEqualTo(appointment.getVersion() + 1);
+		}
+		assertThat(appointmentService.findById(completed.getId()).getStatus()).isEqualTo("COMPLETED");
+		assertThat(appointmentService.findById(cancelled.getId()).getStatus()).isEqualTo("CANCELLED");
+		assertThat(appointmentService.findById(withinGrace.getId()).getStatus()).isEqualTo("SCHEDULED");
+		assertThat(appointmentService.findById(upcoming.getId()).getStatus()).isEqualTo("SCHEDULED");
+		assertThat(meterRegistry.counter("hospital.status.sweep.rows", "status", "NO_SHOW").count() - movedBefore)
+				.isEqualTo(3);
+
+		UtilizationDTO day = utilizationService.forDoctor(doctor.getId(), LAST_WEEK, LAST_WEEK, Granularity.DAY).get(0);
+		assertThat(day.getScheduled()).isZero();
+		assertThat(day.getNoShow()).isEqualTo(3);
+		assertThat(day.getCompleted()).isEqualTo(1);
+		assertThat(day.getCancelled()).isEqualTo(1);
+	}
+
+	@Test
+	void laterRunsOnlyReadWhatBecameStaleSince() {
+		book(LAST_WEEK.atTime(15, 0), null);
+		statusSweep.sweep();
+
+		StatusSweepDTO again = statusSweep.sweep();
+
+		assertThat(again.getUpdated()).isZero();
+		assertThat(again.getChunks()).isZero();
+	}
+
+	@Test
+	void aWriteCommittedDuringARunIsSweptByTheNext() {
+		statusSweep.sweep();
+
+		// The run in progress cannot see the uncommitted row and moves its watermark past it
+		AppointmentDTO late = new TransactionTemplate(transactionManager).execute(status -> {
+			AppointmentDTO created = book(LAST_WEEK.atTime(16, 0), null);
+			assertThat(CompletableFuture.supplyAsync(statusSweep::sweep).orTimeout(30, TimeUnit.SECONDS).join()
+					.getUpdated()).isZero();
+			return created;
+		});
+
+		assertThat(statusSweep.sweep().getUpdated()).isEqualTo(1);
+		assertThat(appointmentService.findById(late.getId()).getStatus()).isEqualTo("NO_SHOW");
+	}
+
+	private AppointmentDTO book(LocalDateTime at, String status) {
+		return appointmentService.create(AppointmentDTO.builder()
+				.patientId(patient.getId())
+				.doctorId(doctor.getId())
+				.appointmentDate(at)
+				.status(status)
+				.build());
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.entity.Patient;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.DoctorRepository;
+import com.example.demo.service.UtilizationService.Granularity;
+import com.example.demo.support.ApplicationTestSupport;
+
+class CascadingDeleteTests extends ApplicationTestSupport {
+
+	private static final LocalDate DAY = LocalDate.of(2034, 6, 1);
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private UtilizationService utilizationService;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	private Patient patient;
+	private final List<DoctorDTO> doctors = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		patient = patient("Cascade Patient");
+	}
+
+	@Test
+	void departmentDeleteCostsTheSameHoweverManyAppointmentsGo() {
+		DepartmentDTO small = departmentWithAppointments(1);
+		DepartmentDTO large = departmentWithAppointments(10);
+
+		long smallStatements = countDelete(small);
+		Statistics statistics = statistics();
+		long largeStatements = countDelete(large);
+
+		assertThat(largeStatements).isEqualTo(smallStatements);
+		assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(1);
+		assertThat(doctorRepository.findByDepartmentId(large.getId())).isEmpty();
+		assertThat(appointmentRepository.findByPatientId(patient.getId())).isEmpty();
+		assertThat(utilizationService.forDepartment(large.getId(), DAY, DAY, Granularity.DAY).get(0).getTotal()).isZero();
+	}
+
+	@Test
+	void patientDeleteTakesTheirAppointments() {
+		departmentWithAppointments(3);
+		DoctorDTO doctor = doctors.get(0);
+
+		patientService.delete(patient.getId());
+
+		assertThat(appointmentRepository.findByPatientId(patient.getId())).isEmpty();
+		assertThat(utilizationService.forDoctor(doctor.getId(), DAY, DAY, Granularity.DAY).get(0).getTotal()).isZero();
+		assertThatThrownBy(() -> patientService.delete(patient.getId())).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	private DepartmentDTO departmentWithAppointments(int perDoctor) {
+		DepartmentDTO department = department("Cascade Ward");
+		doctors.clear();
+		for (int i = 0; i < 2; i++) {
+			doctors.add(doctor("Dr. Cascade " + i, department));
+		}
+		for (DoctorDTO doctor : doctors) {
+			for (int hour = 0; hour < perDoctor; hour++) {
+				book(patient.getId(), doctor.getId(), DAY.atTime(8 + hour, 0));
+			}
+		}
+		return department;
+	}
+
+	private long countDelete(DepartmentDTO department) {
+		statistics().clear();
+		departmentService.delete(department.getId());
+		return statistics().getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.repository.AppointmentRepository;
+
+class DoctorScheduleIndexWarmUpTests {
+
+	@Test
+	void aFailedWarmUpFailsBookingsAtOnceInsteadOfTimingOut() {
+		AppointmentRepository repository = mock(AppointmentRepository.class);
+		when(repository.streamActiveSlotsFrom(any())).thenThrow(new DataAccessResourceFailureException("database down"));
+		DoctorScheduleIndex index = new DoctorScheduleIndex(repository, mock(PlatformTransactionManager.class),
+				Duration.ofMinutes(30));
+
+		assertThatThrownBy(index::warmUp).isInstanceOf(DataAccessResourceFailureException.class);
+
+		long started = System.nanoTime();
+		assertThatThrownBy(() -> index.reserve(1L, 1L, LocalDate.now().plusDays(1).atTime(9, 0)))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("failed to warm up")
+				.hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+	}
+}
@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.dto.ImportReportDTO;
+import com.example.demo.entity.Patient;
+import com.example.demo.service.PatientImportService.Format;
+import com.example.demo.support.ApplicationTestSupport;
+
+@TestPropertySource(properties = "patients.import.chunk-size=3")
+class PatientImportServiceTests extends ApplicationTestSupport {
+
+	@Autowired
+	private PatientImportService importService;
+
+	@Test
+	void quotedFieldsKeepTheirCommasQuotesAndLineBreaks() throws IOException {
+		ImportReportDTO report = importCsv("""
+				name,address,dateOfBirth
+				"Quoted, Comma","12 Main St, Springfield",1980-01-02
+				"Said \"\"Hi\"\"",Elm Row,
+				Line Break,"Flat 4
+				Harbour View",1990-03-04
+				After Break,Dock Lane,
+				""");
+
+		assertThat(report.getProcessed()).isEqualTo(4);
+		assertThat(report.getImported()).isEqualTo(4);
+		assertThat(report.getErrors()).isEmpty();
+		Patient comma = only("Quoted, Comma");
+		assertThat(comma.getAddress()).isEqualTo("12 Main St, Springfield");
+		assertThat(comma.getDateOfBirth()).isEqualTo(LocalDate.of(1980, 1, 2));
+		assertThat(only("Said \"Hi\"").getAddress()).isEqualTo("Elm Row");
+		assertThat(only("Line Break").getAddress()).isEqualTo("Flat 4\nHarbour View");
+		assertThat(only("After Break").getAddress()).isEqualTo("Dock Lane");
+	}
+
+	@Test
+	void anUnterminatedQuoteFailsOnlyItsOwnRecord() throws IOException {
+		StringBuilder csv = new StringBuilder("name,address\nOpen Quote,\"never closed\n");
+		for (int i = 0; i < 60; i++) {
+			csv.append("swallowed ").append(i).append('\n');
+		}
+		csv.append("Past The Cap,Quay\n");
+
+		ImportReportDTO report = importCsv(csv.toString());
+
+		assertThat(report.getErrors()).first()
+				.satisfies(error -> {
+					assertThat(error.getLine()).isEqualTo(2);
+					assertThat(error.getMessage()).contains("unterminated quoted field");
+				});
+		assertThat(only("Past The Cap").getAddress()).isEqualTo("Quay");
+		assertThat(patientRepository.findByNameContainingIgnoreCase("Open Quote", Limit.unlimited())).isEmpty();
+	}
+
+	@Test
+	void aBadRowInTheMiddleOfAChunkCostsOnlyThatRow() throws IOException {
+		// Rows 2-4 form one chunk; the over-long address passes validation but fails the insert, so the
+		// chunk is replayed row by row. Row 6 fails validation before it reaches the database.
+		ImportReportDTO report = importCsv("name,email,address\n"
+				+ "Chunk First,first@example.com,North\n"
+				+ "Chunk Middle,middle@example.com," + "x".repeat(300) + "\n"
+				+ "Chunk Last,last@example.com,South\n"
+				+ "Next Chunk,next@example.com,East\n"
+				+ "Bad Email,not-an-email,West\n"
+				+ "Extra Columns,,,\n");
+
+		assertThat(report.getProcessed()).isEqualTo(6);
+		assertThat(report.getImported()).isEqualTo(4);
+		assertThat(report.getFailed()).isEqualTo(2);
+		assertThat(report.getErrors())
+				.extracting(ImportReportDTO.RowError::getLine)
+				.containsExactly(3L, 6L);
+		assertThat(report.getErrors().get(1).getMessage()).contains("email");
+		assertThat(only("Chunk First").getAddress()).isEqualTo("North");
+		assertThat(only("Chunk Last").getAddress()).isEqualTo("South");
+		assertThat(patientRepository.findByNameContainingIgnoreCase("Chunk Middle", Limit.unlimited())).isEmpty();
+	}
+
+	@Test
+	void duplicatesAreNewPatientsAndNeverOverwriteExistingOnes() throws IOException {
+		Patient existing = patientRepository.save(Patient.builder().name("Existing Duplicate").address("Original").build());
+
+		ImportReportDTO report = importNdjson("""
+				{"id": %d, "name": "Existing Duplicate", "address": "Overwritten?"}
+				{"name": "Twin Duplicate", "email": "twin@example.com"}
+				{"name": "Twin Duplicate", "email": "twin@example.com"}
+				{"name": "Broken
+				""".formatted(existing.getId()));
+
+		assertThat(report.getImported()).isEqualTo(3);
+		assertThat(report.getErrors())
+				.extracting(ImportReportDTO.RowError::getLine, error -> error.getMessage().startsWith("Unparseable row"))
+				.containsExactly(tuple(4L, true));
+		assertThat(patientRepository.findById(existing.getId())).get()
+				.extracting(Patient::getAddress).isEqualTo("Original");
+		assertThat(patientRepository.findByNameContainingIgnoreCase("Existing Duplicate", Limit.unlimited()))
+				.extracting(Patient::getAddress)
+				.containsExactlyInAnyOrder("Original", "Overwritten?");
+		assertThat(patientRepository.findByNameContainingIgnoreCase("Twin Duplicate", Limit.unlimited()))
+				.hasSize(2)
+				.extracting(Patient::getId).doesNotHaveDuplicates();
+	}
+
+	private ImportReportDTO importCsv(String body) throws IOException {
+		return importService.importPatients(stream(body), Format.CSV);
+	}
+
+	private ImportReportDTO importNdjson(String body) throws IOException {
+		return importService.importPatients(stream(body), Format.NDJSON);
+	}
+
+	private Patient only(String name) {
+		List<Patient> matches = patientRepository.findByNameContainingIgnoreCase(name, Limit.unlimited());
+		assertThat(matches).hasSize(1);
+		return matches.get(0);
+	}
+
+	private static ByteArrayInputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.dto.UtilizationDTO;
+import com.example.demo.entity.Patient;
+import com.example.demo.service.UtilizationService.Granularity;
+import com.example.demo.support.ApplicationTestSupport;
+
+class UtilizationRollupsTests extends ApplicationTestSupport {
+
+	// A Wednesday; its week runs from Monday 2033-03-07 to Sunday 2033-03-13
+	private static final LocalDate DAY = LocalDate.of(2033, 3, 9);
+
+	@Autowired
+	private UtilizationService utilizationService;
+
+	@Autowired
+	private UtilizationRollups utilizationRollups;
+
+	private DepartmentDTO cardiology;
+	private DepartmentDTO surgery;
+	private DoctorDTO cardiologist;
+	private DoctorDTO surgeon;
+	private Patient patient;
+
+	@BeforeEach
+	void setUp() {
+		cardiology = department("Rollup Cardiology");
+		surgery = department("Rollup Surgery");
+		cardiologist = doctor("Dr. Heart", cardiology);
+		surgeon = doctor("Dr. Knife", surgery);
+		patient = patient("Rollup Patient");
+	}
+
+	@Test
+	void createUpdateAndDeleteMoveTheCounters() {
+		AppointmentDTO first = book(cardiologist, DAY, 9);
+		AppointmentDTO second = book(cardiologist, DAY, 10);
+		AppointmentDTO third = book(cardiologist, DAY.plusDays(1), 9);
+
+		UtilizationDTO day = doctorDay(cardiologist, DAY);
+		assertThat(day.getScheduled()).isEqualTo(2);
+		assertThat(day.getTotal()).isEqualTo(2);
+
+		appointmentService.update(first.getId(), AppointmentDTO.builder().status("COMPLETED").build());
+		appointmentService.update(second.getId(), AppointmentDTO.builder().doctorId(surgeon.getId()).build());
+		appointmentService.update(third.getId(), AppointmentDTO.builder().appointmentDate(DAY.atTime(15, 0)).build());
+
+		day = doctorDay(cardiologist, DAY);
+		assertThat(day.getScheduled()).isEqualTo(1);
+		assertThat(day.getCompleted()).isEqualTo(1);
+		assertThat(day.getTotal()).isEqualTo(2);
+		assertThat(doctorDay(cardiologist, DAY.plusDays(1)).getTotal()).isZero();
+		assertThat(doctorDay(surgeon, DAY).getScheduled()).isEqualTo(1);
+		assertThat(departmentDay(cardiology, DAY).getTotal()).isEqualTo(2);
+		assertThat(departmentDay(surgery, DAY).getTotal()).isEqualTo(1);
+
+		appointmentService.delete(first.getId());
+
+		day = doctorDay(cardiologist, DAY);
+		assertThat(day.getCompleted()).isZero();
+		assertThat(day.getTotal()).isEqualTo(1);
+		assertThat(departmentDay(cardiology, DAY).getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	void weeksStartOnMondayAndEmptyPeriodsAreListed() {
+		book(cardiologist, DAY.minusDays(2), 9);
+		book(cardiologist, DAY.plusDays(4), 9);
+		book(cardiologist, DAY.plusDays(5), 9);
+
+		List<UtilizationDTO> weeks = utilizationService.forDoctor(cardiologist.getId(), DAY.minusDays(2),
+				DAY.plusDays(14), Granularity.WEEK);
+
+		assertThat(weeks).extracting(UtilizationDTO::getPeriodStart)
+				.containsExactly(DAY.minusDays(2), DAY.plusDays(5), DAY.plusDays(12));
+		assertThat(weeks).extracting(UtilizationDTO::getTotal).containsExactly(2L, 1L, 0L);
+
+		// A range starting mid-week still counts the whole first week
+		List<UtilizationDTO> midWeek = utilizationService.forDoctor(cardiologist.getId(), DAY, DAY.plusDays(5),
+				Granularity.WEEK);
+		assertThat(midWeek).extracting(UtilizationDTO::getPeriodStart).containsExactly(DAY.minusDays(2), DAY.plusDays(5));
+		assertThat(midWeek).extracting(UtilizationDTO::getTotal).containsExactly(2L, 1L);
+	}
+
+	@Test
+	void deletingADoctorRemovesTheirAppointmentsFromTheDepartment() {
+		book(surgeon, DAY, 9);
+		book(surgeon, DAY, 10);
+		book(cardiologist, DAY, 9);
+
+		doctorService.delete(surgeon.getId());
+
+		assertThat(doctorDay(surgeon, DAY).getTotal()).isZero();
+		assertThat(departmentDay(surgery, DAY).getTotal()).isZero();
+		assertThat(departmentDay(cardiology, DAY).getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	void rebuildReproducesTheMaintainedCounters() {
+		AppointmentDTO first = book(cardiologist, DAY, 9);
+		book(cardiologist, DAY, 11);
+		book(surgeon, DAY.plusDays(1), 9);
+		appointmentService.update(first.getId(), AppointmentDTO.builder().status("NO_SHOW").build());
+		List<UtilizationDTO> maintained = utilizationService.forDepartment(cardiology.getId(), DAY, DAY.plusDays(1),
+				Granularity.DAY);
+
+		utilizationRollups.rebuild();
+
+		assertThat(utilizationService.forDepartment(cardiology.getId(), DAY, DAY.plusDays(1), Granularity.DAY))
+				.isEqualTo(maintained);
+		assertThat(maintained.get(0).getNoShow()).isEqualTo(1);
+		assertThat(doctorDay(surgeon, DAY.plusDays(1)).getScheduled()).isEqualTo(1);
+	}
+
+	private AppointmentDTO book(DoctorDTO doctor, LocalDate date, int hour) {
+		return book(patient.getId(), doctor.getId(), date.atTime(hour, 0));
+	}
+
+	private UtilizationDTO doctorDay(DoctorDTO doctor, LocalDate date) {
+		return utilizationService.forDoctor(doctor.getId(), date, date, Granularity.DAY).get(0);
+	}
+
+	private UtilizationDTO departmentDay(DepartmentDTO department, LocalDate date) {
+		return utilizationService.forDepartment(department.getId(), date, date, Granularity.DAY).get(0);
+	}
+}
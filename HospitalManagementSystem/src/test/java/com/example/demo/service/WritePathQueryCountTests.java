@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.dto.PatientDTO;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.support.ApplicationTestSupport;
+
+class WritePathQueryCountTests extends ApplicationTestSupport {
+
+	private static final LocalDateTime SLOT = LocalDate.of(2035, 2, 5).atTime(9, 0);
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private ResourceVersions resourceVersions;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private DepartmentDTO department;
+	private DoctorDTO doctor;
+	private PatientDTO patient;
+
+	@BeforeEach
+	void setUp() {
+		department = department("Write Ward");
+		doctor = doctor("Dr. Write", department);
+		patient = patientService.create(PatientDTO.builder()
+				.name("Write Patient").email("write@example.com").dateOfBirth(LocalDate.of(1985, 4, 4)).build());
+		// Warms the caches and the id allocation so the counts below are the steady state
+		appointmentService.delete(book(SLOT.minusDays(1)).getId());
+	}
+
+	@Test
+	void appointmentWritesUseTheInsertUpdateOrDeleteAndTheRollupUpsert() {
+		statistics().clear();
+		AppointmentDTO created = book(SLOT);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+		assertThat(created.getPatientName()).isEqualTo("Write Patient");
+		assertThat(created.getDepartmentName()).isEqualTo(department.getName());
+
+		// The edit is read back with its associations, then only the notes column is written
+		statistics().clear();
+		AppointmentDTO edited = appointmentService.update(created.getId(),
+				AppointmentDTO.builder().notes("Fasting").version(created.getVersion()).build());
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+		assertThat(edited.getNotes()).isEqualTo("Fasting");
+		assertThat(edited.getStatus()).isEqualTo("SCHEDULED");
+		assertThat(edited.getVersion()).isEqualTo(created.getVersion() + 1);
+
+		statistics().clear();
+		appointmentService.delete(created.getId());
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics().getEntityLoadCount()).isZero();
+		assertThatThrownBy(() -> appointmentService.delete(created.getId()))
+				.isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void aDoubleBookingIsRejectedBeforeTheInsert() {
+		book(SLOT);
+
+		statistics().clear();
+		assertThatThrownBy(() -> book(SLOT.plusMinutes(10))).isInstanceOf(ConflictException.class);
+		assertThat(statistics().getEntityInsertCount()).isZero();
+		assertThat(statistics().getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void onlyUnknownReferencesAreNotFound() {
+		assertThatThrownBy(() -> appointmentService.create(AppointmentDTO.builder()
+				.patientId(Long.MAX_VALUE).doctorId(doctor.getId()).appointmentDate(SLOT).build()))
+				.isInstanceOf(ResourceNotFoundException.class)
+				.hasMessageContaining("Patient");
+		assertThatThrownBy(() -> doctorService.patch(doctor.getId(), DoctorDTO.builder().departmentId(Long.MAX_VALUE).build()))
+				.isInstanceOf(ResourceNotFoundException.class)
+				.hasMessageContaining("Department");
+		// An unknown department on a booking falls back to the doctor's own
+		AppointmentDTO booked = appointmentService.create(AppointmentDTO.builder()
+				.patientId(patient.getId()).doctorId(doctor.getId()).departmentId(Long.MAX_VALUE).appointmentDate(SLOT.plusHours(2)).build());
+		assertThat(booked.getDepartmentName()).isEqualTo(department.getName());
+		// Any other constraint is left to the 409 handler
+		assertThatThrownBy(() -> appointmentService.create(AppointmentDTO.builder()
+				.patientId(patient.getId()).doctorId(doctor.getId()).appointmentDate(SLOT).notes("x".repeat(300)).build()))
+				.isInstanceOf(DataIntegrityViolationException.class);
+		assertThatThrownBy(() -> doctorService.create(DoctorDTO.builder()
+				.name("Dr. Nameless Department").specialization("x".repeat(300)).build()))
+				.isInstanceOf(DataIntegrityViolationException.class);
+	}
+
+	@Test
+	void patchKeepsFieldsMissingFromTheRequest() {
+		statistics().clear();
+		PatientDTO patched = patientService.patch(patient.getId(), PatientDTO.builder().phone("555-0101").build());
+		assertThat(statistics().getPrepareStatementCount()).isLessThanOrEqualTo(2);
+		assertThat(patched.getPhone()).isEqualTo("555-0101");
+		assertThat(patched.getEmail()).isEqualTo("write@example.com");
+		assertThat(patched.getDateOfBirth()).isEqualTo(patient.getDateOfBirth());
+
+		DoctorDTO renamed = doctorService.patch(doctor.getId(), DoctorDTO.builder().name("Dr. Rewritten").build());
+		assertThat(renamed.getSpecialization()).isEqualTo("General");
+		assertThat(renamed.getDepartmentId()).isEqualTo(department.getId());
+
+		DepartmentDTO described = departmentService.patch(department.getId(), DepartmentDTO.builder().description("East wing").build());
+		assertThat(described.getName()).isEqualTo(department.getName());
+	}
+
+	@Test
+	void aPatchThatChangesNothingKeepsTheTagsAndCaches() {
+		departmentService.findById(department.getId());
+		String departmentTag = resourceVersions.itemTag(ResourceVersions.Resource.DEPARTMENTS, department.getId());
+		String doctorsTag = resourceVersions.collectionTag(ResourceVersions.Resource.DOCTORS);
+		String patientTag = resourceVersions.itemTag(ResourceVersions.Resource.PATIENTS, patient.getId());
+
+		departmentService.patch(department.getId(), DepartmentDTO.builder().name(department.getName()).build());
+		patientService.patch(patient.getId(), PatientDTO.builder().email("write@example.com").build());
+
+		assertThat(resourceVersions.itemTag(ResourceVersions.Resource.DEPARTMENTS, department.getId())).isEqualTo(departmentTag);
+		assertThat(resourceVersions.collectionTag(ResourceVersions.Resource.DOCTORS)).isEqualTo(doctorsTag);
+		assertThat(resourceVersions.itemTag(ResourceVersions.Resource.PATIENTS, patient.getId())).isEqualTo(patientTag);
+		assertThat(cacheManager.getCache(CacheConfig.DEPARTMENTS).get(department.getId())).isNotNull();
+
+		departmentService.patch(department.getId(), DepartmentDTO.builder().description("West wing").build());
+		assertThat(resourceVersions.itemTag(ResourceVersions.Resource.DEPARTMENTS, department.getId())).isNotEqualTo(departmentTag);
+		assertThat(resourceVersions.collectionTag(ResourceVersions.Resource.DOCTORS)).isNotEqualTo(doctorsTag);
+		assertThat(cacheManager.getCache(CacheConfig.DEPARTMENTS).get(department.getId())).isNull();
+	}
+
+	private AppointmentDTO book(LocalDateTime at) {
+		return book(patient.getId(), doctor.getId(), at);
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.demo.support;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+
+import com.example.demo.dto.AppointmentDTO;
+import com.example.demo.dto.DepartmentDTO;
+import com.example.demo.dto.DoctorDTO;
+import com.example.demo.entity.Patient;
+import com.example.demo.repository.PatientRepository;
+import com.example.demo.service.AppointmentService;
+import com.example.demo.service.DepartmentService;
+import com.example.demo.service.DoctorService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Base for tests against the whole application. Subclasses that add no configuration share one
+ * context and one database, so fixtures get unique names and tests only assert on rows they created.
+ * A subclass that needs other settings adds them with {@code @TestPropertySource} and so gets a
+ * context, a database and cache regions of its own (see the test application.properties).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public abstract class ApplicationTestSupport {
+
+	@Autowired
+	protected AppointmentService appointmentService;
+
+	@Autowired
+	protected DoctorService doctorService;
+
+	@Autowired
+	protected DepartmentService departmentService;
+
+	@Autowired
+	protected PatientRepository patientRepository;
+
+	@Autowired
+	protected EntityManagerFactory entityManagerFactory;
+
+	/** Through the service, so the cached department list sees it; the name gets a unique suffix. */
+	protected DepartmentDTO department(String name) {
+		return departmentService.create(DepartmentDTO.builder().name(name + " " + System.nanoTime()).build());
+	}
+
+	protected DoctorDTO doctor(String name, DepartmentDTO department) {
+		return doctorService.create(DoctorDTO.builder()
+				.name(name)
+				.specialization("General")
+				.departmentId(department != null ? department.getId() : null)
+				.build());
+	}
+
+	protected Patient patient(String name) {
+		return patientRepository.save(Patient.builder().name(name).dateOfBirth(LocalDate.of(1980, 1, 1)).build());
+	}
+
+	protected AppointmentDTO book(Long patientId, Long doctorId, LocalDateTime at) {
+		return appointmentService.create(AppointmentDTO.builder()
+				.patientId(patientId)
+				.doctorId(doctorId)
+				.appointmentDate(at)
+				.build());
+	}
+
+	protected Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+}
@@ -0,0 +1,25 @@
+package com.example.demo.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the last SQL statement Hibernate prepared on the calling thread, so a test can run
+ * {@code EXPLAIN} on exactly the statement a repository method sends.
+ */
+public class CapturingStatementInspector {
+
+	private static final ThreadLocal<String> LAST = new ThreadLocal<>();
+
+	public static String lastStatement() {
+		return LAST.get();
+	}
+
+	public static class Inspector implements StatementInspector {
+
+		@Override
+		public String inspect(String sql) {
+			LAST.set(sql);
+			return sql;
+		}
+	}
+}